@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.commons.scheduler.ScheduleOptions;
+import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.serviceusermapping.ServiceUserMapped;
+import org.apache.sling.testing.mock.sling.context.SlingContextImpl;
+import org.apache.sling.testing.resourceresolver.MockFindQueryResources;
+import org.mockito.Mockito;
+
+/**
+ * Sling mock context with generated dictionaries, shared by the benchmarks.
+ * <p>
+ * For each locale of the chain <code>de_AT_vienna -&gt; de_AT -&gt; de -&gt; en</code>
+ * a <code>sling:Message</code> dictionary is created in <code>/libs/i18n</code>,
+ * each providing its own set of keys named <code>&lt;locale&gt;.key.&lt;n&gt;</code>.
+ * For <code>fr</code> the same amount of messages is provided as JSON dictionary
+ * in <code>/apps/i18n</code> only.
+ */
+class BenchmarkContext extends SlingContextImpl {
+
+    static final Locale[] CHAIN = {
+        new Locale("de", "AT", "vienna"), new Locale("de", "AT"), Locale.GERMAN, Locale.ENGLISH
+    };
+
+    static final Locale JSON_LOCALE = Locale.FRENCH;
+
+    static final String MESSAGE_ROOT = "/libs/i18n";
+
+    static final String JSON_ROOT = "/apps/i18n";
+
+    private final List<String> languageRoots = new ArrayList<>();
+
+    /**
+     * Sets up the mock context and generates the dictionaries.
+     *
+     * @param keysPerDictionary number of messages per dictionary
+     */
+    void setUp(int keysPerDictionary) {
+        super.setUp();
+
+        for (Locale locale : CHAIN) {
+            createMessageDictionary(locale, keysPerDictionary);
+        }
+        createJsonDictionary(JSON_LOCALE, keysPerDictionary);
+
+        // the query returns all generated language roots
+        MockFindQueryResources.addFindResourceHandler(
+                resourceResolver(), (query, language) -> findLanguageRoots().iterator());
+        MockFindQueryResources.addQueryResourceHandler(
+                resourceResolver(), (query, language) -> findLanguageRoots().stream()
+                        .map(resource -> {
+                            Map<String, Object> row = new HashMap<>(resource.getValueMap());
+                            row.put(JcrResourceBundle.PROP_PATH, resource.getPath());
+                            return (Map<String, Object>) row;
+                        })
+                        .iterator());
+    }
+
+    void tearDownContext() {
+        super.tearDown();
+    }
+
+    /**
+     * Registers and activates a provider with mocked scheduling, so that
+     * reloads caused by changes are never executed.
+     */
+    JcrResourceBundleProvider activateProvider() {
+        // stub only mocks do not record the invocations of each operation
+        ScheduleOptions options =
+                Mockito.mock(ScheduleOptions.class, Mockito.withSettings().stubOnly());
+        Scheduler scheduler =
+                Mockito.mock(Scheduler.class, Mockito.withSettings().stubOnly());
+        Mockito.when(scheduler.NOW()).thenReturn(options);
+        Mockito.when(scheduler.AT(Mockito.any())).thenReturn(options);
+        registerService(Scheduler.class, scheduler);
+        registerService(ServiceUserMapped.class, Mockito.mock(ServiceUserMapped.class));
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("locale.default", "en");
+        config.put("included.paths", new String[] {"/libs", "/apps"});
+        config.put("excluded.paths", new String[] {"/var/eventing"});
+        return registerInjectActivateService(JcrResourceBundleProvider.class, config);
+    }
+
+    static String key(Locale locale, int index) {
+        return locale + ".key." + index;
+    }
+
+    static String message(Locale locale, int index) {
+        return "Message " + index + " for " + locale;
+    }
+
+    private void createMessageDictionary(Locale locale, int keys) {
+        String path = MESSAGE_ROOT + "/" + locale;
+        create().resource(
+                        path,
+                        JcrResourceBundle.PROP_LANGUAGE,
+                        locale.toString(),
+                        JcrResourceBundle.PROP_MIXINS,
+                        new String[] {JcrResourceBundle.MIXIN_LANGUAGE});
+        for (int i = 0; i < keys; i++) {
+            create().resource(
+                            path + "/entry" + i,
+                            "jcr:primaryType",
+                            JcrResourceBundle.RT_MESSAGE_ENTRY,
+                            JcrResourceBundle.PROP_KEY,
+                            key(locale, i),
+                            JcrResourceBundle.PROP_VALUE,
+                            message(locale, i));
+        }
+        languageRoots.add(path);
+    }
+
+    private void createJsonDictionary(Locale locale, int keys) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < keys; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\n\"").append(key(locale, i)).append("\": \"");
+            json.append(message(locale, i)).append('"');
+        }
+        json.append("\n}");
+
+        String path = JSON_ROOT + "/" + locale + ".json";
+        create().resource(
+                        path,
+                        "jcr:primaryType",
+                        "nt:file",
+                        JcrResourceBundle.PROP_LANGUAGE,
+                        locale.toString(),
+                        JcrResourceBundle.PROP_MIXINS,
+                        new String[] {JcrResourceBundle.MIXIN_LANGUAGE});
+        create().resource(
+                        path + "/jcr:content",
+                        "jcr:primaryType",
+                        "nt:resource",
+                        "jcr:data",
+                        json.toString().getBytes(StandardCharsets.UTF_8));
+        languageRoots.add(path);
+    }
+
+    private List<Resource> findLanguageRoots() {
+        List<Resource> roots = new ArrayList<>();
+        for (String path : languageRoots) {
+            Resource root = resourceResolver().getResource(path);
+            if (root != null) {
+                roots.add(root);
+            }
+        }
+        return roots;
+    }
+}
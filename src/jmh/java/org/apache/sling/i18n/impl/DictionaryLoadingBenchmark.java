@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks loading a single dictionary either from a JSON file or from
+ * <code>sling:Message</code> nodes, both providing the same amount of messages.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DictionaryLoadingBenchmark {
+
+    @Param({"json", "message"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int keysPerDictionary;
+
+    private final BenchmarkContext context = new BenchmarkContext();
+
+    private final PathFilter pathFilter = new PathFilter();
+
+    private Locale locale;
+
+    @Setup
+    public void setUp() {
+        context.setUp(keysPerDictionary);
+        locale = "json".equals(format) ? BenchmarkContext.JSON_LOCALE : Locale.ENGLISH;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.tearDownContext();
+    }
+
+    @Benchmark
+    public JcrResourceBundle load() {
+        return new JcrResourceBundle(locale, null, context.resourceResolver(), null, pathFilter);
+    }
+}
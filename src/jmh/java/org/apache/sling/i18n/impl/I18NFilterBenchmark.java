@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.sling.i18n.ResourceBundleProvider;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osgi.framework.Constants;
+
+/**
+ * Benchmarks the per request overhead of the {@link I18NFilter}, including
+ * the resolution of the request locale and resource bundle by the next
+ * filter in the chain.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class I18NFilterBenchmark {
+
+    private final BenchmarkContext context = new BenchmarkContext();
+
+    private I18NFilter filter;
+
+    private HttpServletRequest request;
+
+    private ServletResponse response;
+
+    @Setup
+    public void setUp() {
+        context.setUp(100);
+        final JcrResourceBundleProvider provider = context.activateProvider();
+
+        filter = new I18NFilter();
+        filter.bindResourceBundleProvider(provider, Collections.singletonMap(Constants.SERVICE_ID, 1L));
+        final Locale locale = BenchmarkContext.CHAIN[0];
+        filter.bindJakartaRequestLocaleResolver(req -> Collections.singletonList(locale));
+        // load the bundles up front, only the cached lookup is measured
+        provider.getResourceBundle(locale);
+
+        // stub only mocks do not record the invocations of each operation
+        request = Mockito.mock(HttpServletRequest.class, Mockito.withSettings().stubOnly());
+        response = Mockito.mock(ServletResponse.class, Mockito.withSettings().stubOnly());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.tearDownContext();
+    }
+
+    @Benchmark
+    public void doFilter(final Blackhole blackhole) throws IOException, ServletException {
+        final FilterChain chain = (req, res) -> {
+            blackhole.consume(req.getLocale());
+            blackhole.consume(req.getAttribute(ResourceBundleProvider.BUNDLE_REQ_ATTR));
+        };
+        filter.doFilter(request, response, chain);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the routing of resource change events to the affected resource
+ * bundles. The scheduler is mocked, so the reloads themselves are not executed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OnChangeBenchmark {
+
+    @Param({"languageRoot", "message", "unrelated", "excluded"})
+    public String change;
+
+    private final BenchmarkContext context = new BenchmarkContext();
+
+    private JcrResourceBundleProvider provider;
+
+    private List<ResourceChange> changes;
+
+    @Setup
+    public void setUp() {
+        context.setUp(100);
+        provider = context.activateProvider();
+        for (int i = 0; i < BenchmarkContext.CHAIN.length; i++) {
+            provider.getResourceBundle(BenchmarkContext.CHAIN[i]);
+        }
+
+        final String path;
+        switch (change) {
+            case "languageRoot":
+                path = BenchmarkContext.MESSAGE_ROOT + "/de";
+                break;
+            case "message":
+                path = BenchmarkContext.MESSAGE_ROOT + "/de/entry1";
+                break;
+            case "unrelated":
+                path = "/apps/sample/components/page";
+                break;
+            default:
+                path = "/var/eventing/jobs/1";
+        }
+        changes = Collections.singletonList(new ResourceChange(ChangeType.CHANGED, path, false));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.tearDownContext();
+    }
+
+    @Benchmark
+    public void onChange() {
+        provider.onChange(changes);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the request time hot path: looking up cached resource bundles
+ * and resolving messages along the parent chain.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceBundleProviderBenchmark {
+
+    @Param({"100", "1000"})
+    public int keysPerDictionary;
+
+    private final BenchmarkContext context = new BenchmarkContext();
+
+    private JcrResourceBundleProvider provider;
+
+    private ResourceBundle bundle;
+
+    private Locale locale;
+
+    private String ownKey;
+
+    private String deepKey;
+
+    @Setup
+    public void setUp() {
+        context.setUp(keysPerDictionary);
+        provider = context.activateProvider();
+
+        locale = BenchmarkContext.CHAIN[0];
+        bundle = provider.getResourceBundle(locale);
+        ownKey = BenchmarkContext.key(locale, keysPerDictionary / 2);
+        deepKey =
+                BenchmarkContext.key(BenchmarkContext.CHAIN[BenchmarkContext.CHAIN.length - 1], keysPerDictionary / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.tearDownContext();
+    }
+
+    @Benchmark
+    public ResourceBundle getResourceBundleCached() {
+        return provider.getResourceBundle(locale);
+    }
+
+    @Benchmark
+    public String getStringOwnKey() {
+        return bundle.getString(ownKey);
+    }
+
+    @Benchmark
+    public String getStringParentKey() {
+        return bundle.getString(deepKey);
+    }
+
+    @Benchmark
+    public String getStringMissingKey() {
+        return bundle.getString("missing.key");
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n;
+
+/**
+ * The <code>MessageFormatter</code> interface is implemented by resource
+ * bundles which keep the parsed <code>java.text.MessageFormat</code> of
+ * their messages, so that formatting a message repeatedly does not parse its
+ * pattern again. Callers check whether the resource bundle at hand implements
+ * this interface and fall back to <code>MessageFormat</code> otherwise:
+ *
+ * <pre>
+ * String message = bundle instanceof MessageFormatter
+ *         ? ((MessageFormatter) bundle).format(key, arguments)
+ *         : new MessageFormat(bundle.getString(key), bundle.getLocale()).format(arguments);
+ * </pre>
+ * <p>
+ * This interface is implemented by the resource bundle provider. It is not
+ * intended to be implemented by application bundles.
+ * @since 2.4
+ */
+public interface MessageFormatter {
+
+    /**
+     * Formats the message with the given key. Implementations are thread safe.
+     *
+     * @param key The key of the message
+     * @param arguments The arguments for the placeholders of the message
+     * @return The formatted message
+     * @throws java.util.MissingResourceException if no message is found for the key
+     * @throws IllegalArgumentException if the message is not a valid
+     *      <code>MessageFormat</code> pattern or an argument cannot be formatted
+     */
+    String format(String key, Object... arguments);
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The <code>ResourceBundleChange</code> describes the change of a single
+ * resource bundle reported to the {@link ResourceBundleChangeListener}s.
+ * <p>
+ * This interface is implemented by the resource bundle provider. It is not
+ * intended to be implemented by application bundles.
+ * @since 2.4
+ */
+public interface ResourceBundleChange {
+
+    /**
+     * Returns the base name of the changed resource bundle.
+     *
+     * @return The base name or {@code null} for the resource bundle without base name
+     */
+    String getBaseName();
+
+    /**
+     * Returns the locale of the changed resource bundle.
+     *
+     * @return The locale
+     */
+    Locale getLocale();
+
+    /**
+     * Returns the keys whose messages have been added, modified or removed in
+     * the resource bundle or one of its parents.
+     *
+     * @return The changed keys or {@code null} if they are not known, in which
+     *         case any message of the resource bundle may have changed
+     */
+    Set<String> getChangedKeys();
+}
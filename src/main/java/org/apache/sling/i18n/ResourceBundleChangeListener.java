@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n;
+
+import java.util.List;
+
+/**
+ * The <code>ResourceBundleChangeListener</code> service interface may be
+ * implemented by services which need to know when the resource bundles of a
+ * {@link ResourceBundleProvider} change, e.g. to invalidate caches of content
+ * rendered with the translated messages.
+ * <p>
+ * Listeners are registered as services and called after the changed resource
+ * bundles have been reloaded or dropped, such that later requests for them
+ * return the new messages. They are called synchronously by the thread
+ * reloading the resource bundles and should therefore return quickly.
+ * @since 2.4
+ */
+public interface ResourceBundleChangeListener {
+
+    /**
+     * Called when resource bundles have changed.
+     *
+     * @param generation A number identifying this change, which is greater than
+     *            the numbers of all changes reported before by the same provider
+     * @param changes The changed resource bundles, never empty. Parent bundles
+     *            are listed before their children.
+     */
+    void onChange(long generation, List<ResourceBundleChange> changes);
+}
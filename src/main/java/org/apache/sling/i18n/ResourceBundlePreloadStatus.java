@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n;
+
+/**
+ * The <code>ResourceBundlePreloadStatus</code> is a marker service registered
+ * by the resource bundle provider to signal the progress of preloading the
+ * resource bundles, which happens in tiers: first the bundles of the language
+ * of the default locale, then those of the priority locales and finally all
+ * others.
+ * <p>
+ * After each tier the service properties are updated: {@link #PROP_TIER}
+ * contains the last completed tier and {@link #PROP_COMPLETED_TIERS} all
+ * completed tiers, so that e.g. a health check can require the service
+ * <code>(preload.completed.tiers=priority)</code> before traffic is routed
+ * to the instance. Tiers are only ever added: reloads of all bundles do not
+ * revoke the readiness signalled before.
+ * <p>
+ * This interface is implemented by the resource bundle provider. It is not
+ * intended to be implemented by application bundles.
+ * @since 2.4
+ */
+public interface ResourceBundlePreloadStatus {
+
+    /** the tier of the bundles of the language of the default locale */
+    String TIER_DEFAULT = "default";
+
+    /** the tier of the bundles of the priority locales */
+    String TIER_PRIORITY = "priority";
+
+    /** the tier of all other bundles */
+    String TIER_ALL = "all";
+
+    /** service property containing the last completed tier, missing if none is completed */
+    String PROP_TIER = "preload.tier";
+
+    /** service property containing all completed tiers as a <code>String[]</code> */
+    String PROP_COMPLETED_TIERS = "preload.completed.tiers";
+}
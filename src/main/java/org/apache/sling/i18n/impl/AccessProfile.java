@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+
+/**
+ * The <code>AccessProfile</code> counts how often the resource bundles are
+ * requested per base name and locale. The profile survives restarts by being
+ * saved to and loaded from a file, where the counts are halved on each load
+ * so that keys no longer requested fade out over time.
+ * <p>
+ * The number of keys is limited to prevent arbitrary locales (e.g. from
+ * request headers) from filling the profile. Once the limit is reached the
+ * keys with the lowest counts are evicted to make room for new ones, so that
+ * rarely requested keys cannot keep frequently requested ones out.
+ */
+class AccessProfile {
+
+    /** maximum number of keys tracked */
+    static final int MAX_KEYS = 1000;
+
+    /** number of keys evicted at once when the limit is reached */
+    static final int EVICTED_KEYS = MAX_KEYS / 10;
+
+    /** separates locale and base name in the saved profile */
+    private static final char SEPARATOR = '|';
+
+    private final Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Records a request for the resource bundle with the given key.
+     */
+    void record(final Key key) {
+        LongAdder count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= MAX_KEYS) {
+                evictColdest();
+            }
+            count = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Removes the keys with the lowest counts if the limit is reached.
+     */
+    private synchronized void evictColdest() {
+        if (counts.size() < MAX_KEYS) {
+            // evicted by a concurrent call
+            return;
+        }
+        counts.entrySet().stream()
+                .map(entry -> new SimpleImmutableEntry<>(
+                        entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(EVICTED_KEYS)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(counts::remove);
+    }
+
+    long getCount(final Key key) {
+        final LongAdder count = counts.get(key);
+        return count != null ? count.sum() : 0;
+    }
+
+    int size() {
+        return counts.size();
+    }
+
+    /**
+     * Returns the keys with the highest counts, hottest first.
+     *
+     * @param limit the maximum number of keys to return
+     */
+    List<Key> getHottest(final int limit) {
+        // take a snapshot, the counts may change while sorting
+        final List<Map.Entry<Key, Long>> snapshot = new ArrayList<>(counts.size());
+        for (final Map.Entry<Key, LongAdder> entry : counts.entrySet()) {
+            snapshot.add(
+                    new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()));
+        }
+        snapshot.sort(Map.Entry.<Key, Long>comparingByValue().reversed());
+        return snapshot.stream().limit(limit).map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * Adds the counts of the profile saved in the given file, halving them.
+     */
+    void load(final File file) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+        }
+        for (final String name : properties.stringPropertyNames()) {
+            final long count;
+            try {
+                count = Long.parseLong(properties.getProperty(name)) / 2;
+            } catch (final NumberFormatException e) {
+                continue;
+            }
+            final int separator = name.indexOf(SEPARATOR);
+            final String locale = separator < 0 ? name : name.substring(0, separator);
+            final String baseName = separator < 0 ? null : name.substring(separator + 1);
+            if (count > 0 && counts.size() < MAX_KEYS) {
+                counts.computeIfAbsent(
+                                new Key(baseName, JcrResourceBundleProvider.toLocale(locale)), k -> new LongAdder())
+                        .add(count);
+            }
+        }
+    }
+
+    /**
+     * Saves the profile to the given file, replacing the file atomically.
+     */
+    void save(final File file) throws IOException {
+        final Properties properties = new Properties();
+        for (final Map.Entry<Key, LongAdder> entry : counts.entrySet()) {
+            final Key key = entry.getKey();
+            final String name =
+                    key.baseName == null ? key.locale.toString() : key.locale.toString() + SEPARATOR + key.baseName;
+            properties.setProperty(name, Long.toString(entry.getValue().sum()));
+        }
+        final File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+            properties.store(out, "Apache Sling I18N resource bundle access profile");
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The <code>CachedMessageFormat</code> is a thread safe formatter for a
+ * single message pattern. The pattern is parsed only once, when the formatter
+ * is created.
+ * <p>
+ * As <code>MessageFormat</code> instances must not be used concurrently,
+ * the parsed pattern is kept as a prototype which is never used for
+ * formatting itself. One copy of it is reused by callers as long as there is
+ * no contention, concurrent callers format with a copy of their own.
+ */
+final class CachedMessageFormat {
+
+    private final MessageFormat prototype;
+
+    private final AtomicReference<MessageFormat> spare = new AtomicReference<>();
+
+    /**
+     * @param pattern the message pattern
+     * @param locale the locale used for formatting the arguments
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    CachedMessageFormat(final String pattern, final Locale locale) {
+        this.prototype = new MessageFormat(pattern, locale);
+    }
+
+    /**
+     * Formats the message with the given arguments.
+     *
+     * @param arguments the arguments for the placeholders of the pattern
+     * @return the formatted message
+     * @throws IllegalArgumentException if an argument cannot be formatted
+     *      by the format defined for it in the pattern
+     */
+    String format(final Object... arguments) {
+        MessageFormat format = spare.getAndSet(null);
+        if (format == null) {
+            format = (MessageFormat) prototype.clone();
+        }
+        try {
+            return format.format(arguments);
+        } finally {
+            spare.lazySet(format);
+        }
+    }
+
+    /**
+     * Returns the locale used for formatting the arguments.
+     */
+    Locale getLocale() {
+        return prototype.getLocale();
+    }
+
+    /**
+     * Returns the pattern of the message.
+     */
+    String toPattern() {
+        return prototype.toPattern();
+    }
+
+    @Override
+    public String toString() {
+        return "CachedMessageFormat [pattern=" + prototype.toPattern() + ", locale=" + prototype.getLocale() + "]";
+    }
+}
@@ -39,12 +39,88 @@ public @interface Config {
                     "Whether or not to eagerly load the resource bundles " + "on bundle start or a cache invalidation.")
     boolean preload_bundles() default false;
 
+    @AttributeDefinition(
+            name = "Preload Locales",
+            description = "Glob patterns (* and ?) of the locales whose resource bundles are preloaded and "
+                    + "eagerly reloaded if bundles are preloaded, e.g. de* or en_US. If empty, all locales are "
+                    + "preloaded. Bundles of other locales are loaded on demand.")
+    String[] preload_locales() default {};
+
+    @AttributeDefinition(
+            name = "Preload Locales Excluded",
+            description = "Glob patterns of the locales whose resource bundles are never preloaded.")
+    String[] preload_locales_excluded() default {};
+
+    @AttributeDefinition(
+            name = "Preload Base Names",
+            description = "Glob patterns of the base names whose resource bundles are preloaded if bundles are "
+                    + "preloaded. Bundles without base name are matched as the empty string. If empty, all base "
+                    + "names are preloaded.")
+    String[] preload_basenames() default {};
+
+    @AttributeDefinition(
+            name = "Preload Base Names Excluded",
+            description = "Glob patterns of the base names whose resource bundles are never preloaded.")
+    String[] preload_basenames_excluded() default {};
+
+    @AttributeDefinition(
+            name = "Preload Priority Locales",
+            description = "Glob patterns of the locales preloaded right after the bundles of the language of the "
+                    + "default locale, before all other bundles. The progress of preloading is signalled by the "
+                    + "service properties of the ResourceBundlePreloadStatus service.")
+    String[] preload_priority_locales() default {};
+
     @AttributeDefinition(
             name = "Invalidation Delay",
             description = "In case of dictionary change events the cached "
                     + "resource bundle becomes invalid after the given delay (in ms). ")
     long invalidation_delay() default 5000;
 
+    @AttributeDefinition(
+            name = "Invalidation Maximum Delay",
+            description = "The maximum time (in ms) a cached resource bundle stays invalid after the first change, "
+                    + "even if further changes keep arriving within the invalidation delay.")
+    long invalidation_max_delay() default 30000;
+
+    @AttributeDefinition(
+            name = "Adaptive Invalidation Delay",
+            description = "If enabled, the invalidation delay is extended to twice the average interval between "
+                    + "the recent changes, up to the maximum delay, so that slow sequences of changes are "
+                    + "reloaded together.")
+    boolean invalidation_adaptive() default false;
+
+    @AttributeDefinition(
+            name = "External Invalidation Delay",
+            description = "The invalidation delay (in ms) for changes made on other cluster instances. "
+                    + "0 uses the invalidation delay.")
+    long external_invalidation_delay() default 0;
+
+    @AttributeDefinition(
+            name = "External Invalidation Maximum Delay",
+            description = "The maximum invalidation delay (in ms) for changes made on other cluster instances. "
+                    + "0 uses the invalidation maximum delay.")
+    long external_invalidation_max_delay() default 0;
+
+    @AttributeDefinition(
+            name = "External Stagger",
+            description = "The maximum additional delay (in ms) for changes made on other cluster instances, so that "
+                    + "the instances of a cluster do not reload their resource bundles at the same time. "
+                    + "0 disables staggering.")
+    long external_stagger() default 0;
+
+    @AttributeDefinition(
+            name = "Node Based External Stagger",
+            description = "If enabled, the additional delay for changes made on other cluster instances is derived "
+                    + "from the framework UUID of this instance instead of being random for each change.")
+    boolean external_stagger_node_based() default false;
+
+    @AttributeDefinition(
+            name = "External Reload Loaded Only",
+            description = "If enabled, changes made on other cluster instances only reload the changed resource "
+                    + "bundles currently loaded on this instance. Other bundles are loaded on first use. Changes "
+                    + "requiring all resource bundles to be reloaded still reload all of them.")
+    boolean external_reload_loaded_only() default false;
+
     @AttributeDefinition(
             name = "Included paths",
             description =
@@ -55,4 +131,83 @@ public @interface Config {
             name = "Excluded paths",
             description = "Translations in paths starting with one of these values will be excluded.")
     String[] excluded_paths() default {"/var/eventing"};
+
+    @AttributeDefinition(
+            name = "Supported Locales Only",
+            description = "If enabled, resource bundles are only created for locales having dictionaries in the "
+                    + "repository. Requests for any other locale are answered with the resource bundle of the "
+                    + "nearest parent locale having dictionaries.")
+    boolean supported_locales_only() default false;
+
+    @AttributeDefinition(
+            name = "Missing Keys Sample Rate",
+            description = "If set to a positive number N, one out of N lookups of keys not provided by a resource "
+                    + "bundle itself is checked against all of its parents and recorded if the key is missing "
+                    + "everywhere. The most frequently missing keys per locale are exposed via JMX and the "
+                    + "inventory. 0 disables recording.")
+    int missing_keys_sample_rate() default 0;
+
+    @AttributeDefinition(
+            name = "Warmup Hot Keys",
+            description = "If bundles are not preloaded, the number of most frequently requested resource bundles "
+                    + "which are loaded in the background on activation and after all bundles have been "
+                    + "invalidated. The request frequencies are recorded and saved in the bundle data area. "
+                    + "0 disables recording and warmup.")
+    int warmup_hot_keys() default 0;
+
+    @AttributeDefinition(
+            name = "Access Profile Save Interval",
+            description = "The interval (in seconds) in which the recorded request frequencies are saved. "
+                    + "They are saved on deactivation as well.")
+    long access_profile_save_interval() default 300;
+
+    @AttributeDefinition(
+            name = "Load Timeout",
+            description = "The maximum time (in ms) a request waits for a resource bundle to be loaded. If the "
+                    + "load takes longer, the request gets the loaded resource bundle of the nearest parent locale "
+                    + "while the load continues in the background. 0 waits until the bundle is loaded.")
+    long load_timeout() default 0;
+
+    @AttributeDefinition(
+            name = "Maximum Concurrent Loads",
+            description = "The maximum number of resource bundles read from the repository at the same time. "
+                    + "Further loads wait, the ones of the default locale first, then the ones requests wait for, "
+                    + "then background loads. 0 does not limit the loads.")
+    int load_max_concurrent() default 0;
+
+    @AttributeDefinition(
+            name = "Reload Parallelism",
+            description = "The number of threads, including the reloading thread, used to load the new resource "
+                    + "bundles when all resource bundles are reloaded, at most the number of reload threads. The new "
+                    + "bundles are built in the background and replace the old ones at once.")
+    int reload_parallelism() default 2;
+
+    @AttributeDefinition(
+            name = "Reload Threads",
+            description = "The number of threads running the scheduled reloads of resource bundles, separate from "
+                    + "the Sling scheduler and from the threads loading resource bundles for requests. Reloads run "
+                    + "one at a time, the further threads help loading the new resource bundles when all bundles are "
+                    + "reloaded. 0 runs the reloads on the scheduler threads.")
+    int reload_threads() default 2;
+
+    @AttributeDefinition(
+            name = "Reload Queue Size",
+            description = "The maximum number of resource bundles pending reload. Requests for bundles already "
+                    + "pending are merged, if more bundles are pending all resource bundles are reloaded instead.")
+    int reload_queue_size() default 1000;
+
+    @AttributeDefinition(
+            name = "Locator Paths Batch Delay",
+            description = "The delay (in milliseconds) for collecting resource bundle locator paths registered or "
+                    + "unregistered by starting and stopping bundles. Afterwards only the resource bundles affected "
+                    + "by the dictionaries below the changed locator paths are reloaded.")
+    long locator_paths_batch_delay() default 1000;
+
+    @AttributeDefinition(
+            name = "Dictionary Paths",
+            description = "Paths or glob patterns (e.g. glob:/apps/**/i18n/**) at which new dictionaries are "
+                    + "detected. If set, only changes at these paths, below the loaded dictionaries and below the "
+                    + "resource bundle locator paths are observed. Otherwise all changes in the included paths are "
+                    + "observed.")
+    String[] dictionary_paths() default {};
 }
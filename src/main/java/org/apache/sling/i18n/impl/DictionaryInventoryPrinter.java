@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.io.PrintWriter;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.felix.inventory.Format;
+import org.apache.felix.inventory.InventoryPrinter;
+import org.apache.sling.i18n.ResourceBundleProvider;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The <code>DictionaryInventoryPrinter</code> prints the {@link LoadProfile load profiles}
+ * of the resource bundles cached by the {@link JcrResourceBundleProvider}, ranked by
+ * their cost, so that expensive dictionaries can be found easily. If enabled, the
+ * most frequently {@link MissingKeyRecorder missing keys} are printed as well.
+ */
+@Component(
+        service = InventoryPrinter.class,
+        property = {
+            Constants.SERVICE_DESCRIPTION + "=Apache Sling I18n Dictionary Inventory Printer",
+            Constants.SERVICE_VENDOR + "=The Apache Software Foundation",
+            InventoryPrinter.NAME + "=i18n-dictionaries",
+            InventoryPrinter.TITLE + "=I18n Dictionaries",
+            InventoryPrinter.FORMAT + "=TEXT"
+        })
+public class DictionaryInventoryPrinter implements InventoryPrinter {
+
+    @Reference(target = "(component.name=org.apache.sling.i18n.impl.JcrResourceBundleProvider)")
+    private ResourceBundleProvider provider;
+
+    @Override
+    public void print(final PrintWriter printWriter, final Format format, final boolean isZip) {
+        if (format != Format.TEXT || !(provider instanceof JcrResourceBundleProvider)) {
+            return;
+        }
+        final Collection<JcrResourceBundle> bundles = ((JcrResourceBundleProvider) provider).getCachedResourceBundles();
+
+        final List<JcrResourceBundle> rankedBundles = new ArrayList<>(bundles);
+        rankedBundles.sort(Comparator.comparingLong(
+                        (JcrResourceBundle bundle) -> bundle.getLoadProfile().getTotalNanos())
+                .reversed());
+
+        final List<Map.Entry<JcrResourceBundle, LoadProfile.Dictionary>> rankedDictionaries = new ArrayList<>();
+        for (final JcrResourceBundle bundle : bundles) {
+            for (final LoadProfile.Dictionary dictionary :
+                    bundle.getLoadProfile().getDictionaries()) {
+                rankedDictionaries.add(new SimpleImmutableEntry<>(bundle, dictionary));
+            }
+        }
+        rankedDictionaries.sort(Comparator.comparingLong((Map.Entry<JcrResourceBundle, LoadProfile.Dictionary> entry) ->
+                        entry.getValue().getElapsedNanos())
+                .reversed());
+
+        printWriter.println("Apache Sling I18n Dictionaries");
+        printWriter.println("==============================");
+        printWriter.printf(
+                "Cached resource bundles: %d, loaded dictionaries: %d%n", bundles.size(), rankedDictionaries.size());
+        printWriter.println();
+
+        printWriter.println("Dictionaries ranked by load time");
+        printWriter.println("--------------------------------");
+        printWriter.printf(
+                "%12s  %-13s  %12s  %8s  %10s  %-20s  %s%n",
+                "Time (ms)", "Strategy", "Size", "Entries", "Overridden", "Bundle", "Path");
+        for (final Map.Entry<JcrResourceBundle, LoadProfile.Dictionary> entry : rankedDictionaries) {
+            final JcrResourceBundle bundle = entry.getKey();
+            final LoadProfile.Dictionary dictionary = entry.getValue();
+            printWriter.printf(
+                    "%12.3f  %-13s  %12s  %8d  %10d  %-20s  %s%n",
+                    toMillis(dictionary.getElapsedNanos()),
+                    dictionary.getStrategy(),
+                    dictionary.getSize()
+                            + (LoadProfile.STRATEGY_JSON.equals(dictionary.getStrategy()) ? " bytes" : " nodes"),
+                    dictionary.getEntries(),
+                    dictionary.getOverriddenKeys(),
+                    toString(bundle),
+                    dictionary.getPath());
+        }
+        printWriter.println();
+
+        printWriter.println("Resource bundles ranked by load time");
+        printWriter.println("------------------------------------");
+        printWriter.printf(
+                "%12s  %12s  %14s  %12s  %s%n", "Total (ms)", "Query (ms)", "Traversal (ms)", "Dictionaries", "Bundle");
+        for (final JcrResourceBundle bundle : rankedBundles) {
+            final LoadProfile profile = bundle.getLoadProfile();
+            printWriter.printf(
+                    "%12.3f  %12.3f  %14.3f  %12d  %s%n",
+                    toMillis(profile.getTotalNanos()),
+                    toMillis(profile.getQueryNanos()),
+                    toMillis(profile.getTraversalNanos()),
+                    profile.getDictionaries().size(),
+                    toString(bundle));
+        }
+
+        final MissingKeyRecorder recorder = ((JcrResourceBundleProvider) provider).getMissingKeyRecorder();
+        if (recorder != null) {
+            printWriter.println();
+            printWriter.println("Most frequently missing keys");
+            printWriter.println("----------------------------");
+            printWriter.printf(
+                    "Sampled lookups: one out of %d, sampled misses: %d, dropped misses: %d%n",
+                    recorder.getSampleRate(), recorder.getSampledMisses(), recorder.getDroppedMisses());
+            for (final Map.Entry<Locale, List<Map.Entry<String, Long>>> locale :
+                    recorder.getTopMissingKeys().entrySet()) {
+                printWriter.println();
+                printWriter.printf("%s%n", locale.getKey());
+                for (final Map.Entry<String, Long> key : locale.getValue()) {
+                    printWriter.printf("%12d  %s%n", key.getValue(), key.getKey());
+                }
+            }
+        }
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String toString(final JcrResourceBundle bundle) {
+        return bundle.getBaseName() == null
+                ? bundle.getLocale().toString()
+                : bundle.getLocale() + " (" + bundle.getBaseName() + ")";
+    }
+}
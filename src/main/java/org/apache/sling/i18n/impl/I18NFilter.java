@@ -45,12 +45,16 @@ import org.apache.sling.i18n.DefaultJakartaLocaleResolver;
 import org.apache.sling.i18n.JakartaRequestLocaleResolver;
 import org.apache.sling.i18n.ResourceBundleProvider;
 import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.osgi.service.http.whiteboard.HttpWhiteboardConstants;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,8 +74,22 @@ import org.slf4j.LoggerFactory;
             HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_SELECT + "=("
                     + HttpWhiteboardConstants.HTTP_WHITEBOARD_CONTEXT_NAME + "=*)"
         })
+@Designate(ocd = I18NFilter.Config.class)
 public class I18NFilter implements Filter {
 
+    @ObjectClassDefinition(
+            name = "Apache Sling I18N Filter",
+            description = "Request filter providing the locale and the resource bundle of the request.")
+    public @interface Config {
+
+        @AttributeDefinition(
+                name = "Prefetch Resource Bundles",
+                description = "Whether the resource bundle of the preferred locale of a request is loaded in the "
+                        + "background as soon as the request enters the filter, if it is not cached yet. The request "
+                        + "waits for the running load when it first asks for the bundle.")
+        boolean prefetch_enabled() default false;
+    }
+
     /**
      * The default server default locale if not configured <code>Locale.ENGLISH</code>.
      */
@@ -102,7 +120,9 @@ public class I18NFilter implements Filter {
 
     private volatile ResourceBundleProvider[] sortedProviders = new ResourceBundleProvider[0];
 
-    private final ResourceBundleProvider combinedProvider = new CombinedBundleProvider();
+    private final CombinedBundleProvider combinedProvider = new CombinedBundleProvider();
+
+    private volatile boolean prefetch;
 
     /**
      * @see jakarta.servlet.Filter#doFilter(jakarta.servlet.ServletRequest, jakarta.servlet.ServletResponse, jakarta.servlet.FilterChain)
@@ -115,6 +135,9 @@ public class I18NFilter implements Filter {
         } else {
             request = new I18NHttpServletRequest(request, combinedProvider, requestLocaleResolver);
         }
+        if (this.prefetch) {
+            combinedProvider.prefetch(request.getLocale());
+        }
 
         // and forward the request
         chain.doFilter(request, response);
@@ -122,6 +145,11 @@ public class I18NFilter implements Filter {
 
     // ---------- SCR Integration ----------------------------------------------
 
+    @Activate
+    protected void activate(final Config config) {
+        this.prefetch = config.prefetch_enabled();
+    }
+
     /**
      * Given all the bound locale resolver candidates, resolve the preferred one.
      * Use the non-deprecated candidate if we have one, or fallback to the least
@@ -271,6 +299,17 @@ public class I18NFilter implements Filter {
             }
             return null;
         }
+
+        /**
+         * Starts loading the resource bundle of the given locale in the background
+         * if the provider answering the requests loads it from the repository.
+         */
+        void prefetch(final Locale locale) {
+            final ResourceBundleProvider[] providers = sortedProviders;
+            if (providers.length > 0 && providers[providers.length - 1] instanceof JcrResourceBundleProvider) {
+                ((JcrResourceBundleProvider) providers[providers.length - 1]).prefetch(null, locale);
+            }
+        }
     }
 
     private static Locale defaultLocale(ResourceBundleProvider bundleProvider) {
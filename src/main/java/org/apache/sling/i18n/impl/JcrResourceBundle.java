@@ -18,12 +18,14 @@
  */
 package org.apache.sling.i18n.impl;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -33,6 +35,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.jackrabbit.commons.json.JsonHandler;
 import org.apache.jackrabbit.commons.json.JsonParser;
@@ -40,10 +43,11 @@ import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceMetadata;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.i18n.MessageFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class JcrResourceBundle extends ResourceBundle {
+public class JcrResourceBundle extends ResourceBundle implements MessageFormatter {
 
     private static final Logger log = LoggerFactory.getLogger(JcrResourceBundle.class);
 
@@ -76,12 +80,47 @@ public class JcrResourceBundle extends ResourceBundle {
 
     private final Set<String> languageRoots = new HashSet<>();
 
+    private final LoadProfile loadProfile = new LoadProfile();
+
+    /**
+     * message formats parsed on demand, which are dropped together with the
+     * messages when this bundle is reloaded
+     */
+    private final Map<String, CachedMessageFormat> messageFormats = new ConcurrentHashMap<>();
+
+    /**
+     * the keys of this bundle and all of its parents, computed on first use
+     */
+    private volatile Set<String> mergedKeys;
+
+    /**
+     * the root resource bundle at the end of the chain of parents or
+     * <code>null</code> if there is none, computed on first use
+     */
+    private volatile RootResourceBundle rootBundle;
+
+    private volatile boolean rootBundleResolved;
+
     JcrResourceBundle(
             final Locale locale,
             final String baseName,
             final ResourceResolver resourceResolver,
             final List<LocatorPaths> locatorPaths,
             final PathFilter filter) {
+        this(locale, baseName, resourceResolver, locatorPaths, filter, new LocatorPathsIndex());
+    }
+
+    /**
+     * Creates the resource bundle using the given index of the language roots
+     * below the locator paths, which may be shared by several resource bundles.
+     */
+    JcrResourceBundle(
+            final Locale locale,
+            final String baseName,
+            final ResourceResolver resourceResolver,
+            final List<LocatorPaths> locatorPaths,
+            final PathFilter filter,
+            final LocatorPathsIndex locatorPathsIndex) {
         this.locale = locale;
         this.baseName = baseName;
 
@@ -89,8 +128,11 @@ public class JcrResourceBundle extends ResourceBundle {
                 "Finding all dictionaries for '{}' (basename: {}) ...", locale, baseName == null ? "<none>" : baseName);
 
         final long start = System.currentTimeMillis();
-        final Set<String> roots = loadPotentialLanguageRoots(resourceResolver, locale, baseName, locatorPaths, filter);
-        this.resources = loadFully(resourceResolver, roots, this.languageRoots);
+        final Set<String> roots =
+                loadPotentialLanguageRoots(resourceResolver, locale, baseName, locatorPaths, locatorPathsIndex, filter);
+        final Map<String, Object> loaded = loadFully(resourceResolver, roots, this.languageRoots, this.loadProfile);
+        // do not keep an empty map per bundle, such a bundle is just an alias of its parent
+        this.resources = loaded.isEmpty() ? Collections.emptyMap() : loaded;
 
         if (log.isInfoEnabled()) {
             final long end = System.currentTimeMillis();
@@ -104,15 +146,64 @@ public class JcrResourceBundle extends ResourceBundle {
         return languageRoots;
     }
 
+    /**
+     * Returns the profile recorded while loading this resource bundle.
+     */
+    LoadProfile getLoadProfile() {
+        return loadProfile;
+    }
+
     @Override
     protected void setParent(ResourceBundle parent) {
         super.setParent(parent);
+        this.mergedKeys = null;
+        this.rootBundleResolved = false;
     }
 
     public ResourceBundle getParent() {
         return parent;
     }
 
+    /**
+     * Returns <code>true</code> if this resource bundle does not provide any
+     * messages on its own. Such a bundle is merely an alias of its parent:
+     * all lookups are answered by the parent bundle while {@link #getLocale()}
+     * still reports the locale for which the bundle was requested.
+     *
+     * @return <code>true</code> if no messages have been loaded for this bundle
+     */
+    boolean isAlias() {
+        return resources.isEmpty();
+    }
+
+    /**
+     * Returns the number of messages provided by this resource bundle only.
+     */
+    int getMessageCount() {
+        return resources.size();
+    }
+
+    /**
+     * Returns the keys of the messages provided by this resource bundle only
+     * which have been added, modified or removed compared to the given bundle.
+     *
+     * @param previous the previous resource bundle with the same base name and locale
+     */
+    Set<String> getChangedKeys(final JcrResourceBundle previous) {
+        final Set<String> changed = new HashSet<>();
+        for (final Map.Entry<String, Object> entry : resources.entrySet()) {
+            if (!entry.getValue().equals(previous.resources.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (final String key : previous.resources.keySet()) {
+            if (!resources.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
     @Override
     public Locale getLocale() {
         return locale;
@@ -135,10 +226,37 @@ public class JcrResourceBundle extends ResourceBundle {
         return resources.keySet();
     }
 
+    /**
+     * Returns the keys of this resource bundle and all of its parents.
+     * <p>
+     * The set is computed once and then kept with this instance. As a
+     * reload of this bundle or one of its parents always creates new
+     * instances, the set never has to be updated afterwards.
+     *
+     * @return The unmodifiable set of keys
+     */
+    @Override
+    public Set<String> keySet() {
+        Set<String> keys = mergedKeys;
+        if (keys == null) {
+            if (resources.isEmpty() && parent != null) {
+                // an alias does not need a copy of the keys of its parent
+                keys = parent.keySet();
+            } else {
+                final Set<String> merged = new LinkedHashSet<>(resources.keySet());
+                if (parent != null) {
+                    merged.addAll(parent.keySet());
+                }
+                keys = Collections.unmodifiableSet(merged);
+            }
+            mergedKeys = keys;
+        }
+        return keys;
+    }
+
     @Override
     public Enumeration<String> getKeys() {
-        Enumeration<String> parentKeys = (parent != null) ? parent.getKeys() : null;
-        return new ResourceBundleEnumeration(resources.keySet(), parentKeys);
+        return Collections.enumeration(keySet());
     }
 
     @Override
@@ -148,7 +266,74 @@ public class JcrResourceBundle extends ResourceBundle {
                     "Requesting key '{}' from resource bundle (baseName '{}', locale '{}')",
                     new Object[] {key, baseName, locale});
         }
-        return resources.get(key);
+        final Object value = resources.get(key);
+        if (value == null) {
+            final RootResourceBundle root = getRootBundle();
+            final MissingKeyRecorder recorder = root != null ? root.getMissingKeyRecorder() : null;
+            if (recorder != null && !keySet().contains(key)) {
+                // missing in all parents as well, so the root resource bundle would just return the key.
+                // Returning it here keeps the parents from seeing the miss, so it is sampled once
+                // and recorded for the locale the lookup started with.
+                if (recorder.sample()) {
+                    recorder.record(locale, key);
+                }
+                return key;
+            }
+        }
+        return value;
+    }
+
+    private RootResourceBundle getRootBundle() {
+        if (!rootBundleResolved) {
+            ResourceBundle bundle = parent;
+            while (bundle instanceof JcrResourceBundle) {
+                bundle = ((JcrResourceBundle) bundle).getParent();
+            }
+            rootBundle = bundle instanceof RootResourceBundle ? (RootResourceBundle) bundle : null;
+            rootBundleResolved = true;
+        }
+        return rootBundle;
+    }
+
+    /**
+     * Returns a formatter for the message with the given key. The message
+     * pattern is parsed on first use only and the formatter is cached with
+     * this resource bundle, as long as the key is provided by this bundle or
+     * one of its parents.
+     *
+     * @param key the key of the message
+     * @return the thread safe formatter for the message
+     * @throws java.util.MissingResourceException if no message is found for
+     *      the key and there is no root resource bundle in the chain of parents
+     * @throws IllegalArgumentException if the message is not a valid
+     *      <code>MessageFormat</code> pattern
+     */
+    CachedMessageFormat getMessageFormat(String key) {
+        CachedMessageFormat format = messageFormats.get(key);
+        if (format == null) {
+            format = new CachedMessageFormat(getString(key), locale);
+            // don't let lookups of missing keys grow the cache
+            if (containsKey(key)) {
+                final CachedMessageFormat existing = messageFormats.putIfAbsent(key, format);
+                if (existing != null) {
+                    format = existing;
+                }
+            }
+        }
+        return format;
+    }
+
+    /**
+     * Formats the message with the given key using a cached formatter.
+     *
+     * @param key the key of the message
+     * @param arguments the arguments for the placeholders of the message
+     * @return the formatted message
+     * @see #getMessageFormat(String)
+     */
+    @Override
+    public String format(String key, Object... arguments) {
+        return getMessageFormat(key).format(arguments);
     }
 
     /**
@@ -166,12 +351,14 @@ public class JcrResourceBundle extends ResourceBundle {
      *      processing the resources, all subtrees listed in the {@code roots}
      *      set is added to this set if it actually contains resources. This
      *      must not be {@code null}.
+     * @param profile The profile to which the load profile of each dictionary
+     *      is added. This must not be {@code null}.
      * @return
      *
      * @throws NullPointerException if either of the parameters is {@code null}.
      */
     private Map<String, Object> loadFully(
-            final ResourceResolver resolver, Set<String> roots, Set<String> languageRoots) {
+            final ResourceResolver resolver, Set<String> roots, Set<String> languageRoots, LoadProfile profile) {
 
         final String[] searchPath = resolver.getSearchPath();
 
@@ -183,11 +370,14 @@ public class JcrResourceBundle extends ResourceBundle {
         //   [2] /libs   -> [dict6, ...]
         //   [3] (other) -> [dict7, dict8 ...]
 
-        List<List<Map<String, Object>>> dictionariesBySearchPath = new ArrayList<>(searchPath.length + 1);
+        List<List<DictionaryLoad>> dictionariesBySearchPath = new ArrayList<>(searchPath.length + 1);
         for (int i = 0; i < searchPath.length + 1; i++) {
-            dictionariesBySearchPath.add(new ArrayList<Map<String, Object>>());
+            dictionariesBySearchPath.add(new ArrayList<DictionaryLoad>());
         }
 
+        // the dictionaries in the order of the roots, together with their load statistics
+        final List<DictionaryLoad> loads = new ArrayList<>();
+
         for (final String root : roots) {
 
             Resource dictionaryResource = resolver.getResource(root);
@@ -201,48 +391,82 @@ public class JcrResourceBundle extends ResourceBundle {
 
             // find where in the search path this dict belongs
             // otherwise put it in the outside-the-search-path bucket (last list)
-            List<Map<String, Object>> targetList = dictionariesBySearchPath.get(searchPath.length);
+            List<DictionaryLoad> targetList = dictionariesBySearchPath.get(searchPath.length);
             for (int i = 0; i < searchPath.length; i++) {
                 if (root.startsWith(searchPath[i])) {
                     targetList = dictionariesBySearchPath.get(i);
                     break;
                 }
             }
-            targetList.add(dictionary);
 
             // check type of dictionary
+            final long start = System.nanoTime();
+            final String strategy;
+            final long size;
             if (dictionaryResource.getName().endsWith(".json")) {
-                loadJsonDictionary(dictionaryResource, dictionary);
+                strategy = LoadProfile.STRATEGY_JSON;
+                size = loadJsonDictionary(dictionaryResource, dictionary);
             } else {
-                loadSlingMessageDictionary(dictionaryResource, dictionary);
+                strategy = LoadProfile.STRATEGY_MESSAGE;
+                size = loadSlingMessageDictionary(dictionaryResource, dictionary);
             }
+            final DictionaryLoad load = new DictionaryLoad(root, strategy, size, System.nanoTime() - start, dictionary);
+            targetList.add(load);
+            loads.add(load);
 
             languageRoots.add(root);
         }
 
         // linked hash map to keep order (not functionally important, but helpful for dictionary debugging)
         final Map<String, Object> result = new LinkedHashMap<>();
+        // the dictionary providing each message of the result
+        final Map<String, DictionaryLoad> providers = new HashMap<>();
 
         // first, add everything that's not under a search path (e.g. /content)
         // below, same strings inside a search path dictionary would overlay them since
         // they are added later to result = overwrite
-        for (Map<String, Object> dict : dictionariesBySearchPath.get(searchPath.length)) {
-            result.putAll(dict);
+        for (DictionaryLoad load : dictionariesBySearchPath.get(searchPath.length)) {
+            merge(load, result, providers);
         }
 
         // then, in order of the search path, add all the individual dictionaries into
         // a single result, so that e.g. strings in /apps overlay the ones in /libs
         for (int i = searchPath.length - 1; i >= 0; i--) {
 
-            for (Map<String, Object> dict : dictionariesBySearchPath.get(i)) {
-                result.putAll(dict);
+            for (DictionaryLoad load : dictionariesBySearchPath.get(i)) {
+                merge(load, result, providers);
             }
         }
 
+        for (final DictionaryLoad load : loads) {
+            // messages provided by another dictionary have been overridden by one with higher precedence
+            int overridden = 0;
+            for (final String key : load.dictionary.keySet()) {
+                if (providers.get(key) != load) {
+                    overridden++;
+                }
+            }
+            profile.addDictionary(new LoadProfile.Dictionary(
+                    load.path, load.strategy, load.size, load.dictionary.size(), load.elapsedNanos, overridden));
+        }
+
         return result;
     }
 
-    private void loadJsonDictionary(Resource resource, final Map<String, Object> targetDictionary) {
+    private static void merge(
+            final DictionaryLoad load, final Map<String, Object> result, final Map<String, DictionaryLoad> providers) {
+        result.putAll(load.dictionary);
+        for (final String key : load.dictionary.keySet()) {
+            providers.put(key, load);
+        }
+    }
+
+    /**
+     * Loads the messages of the given JSON file into the target dictionary.
+     *
+     * @return the number of bytes read
+     */
+    private long loadJsonDictionary(Resource resource, final Map<String, Object> targetDictionary) {
         log.info("Loading json dictionary: {}", resource.getPath());
 
         // use streaming parser (we don't need the dict in memory twice)
@@ -282,8 +506,9 @@ public class JcrResourceBundle extends ResourceBundle {
             public void value(double value) throws IOException {}
         });
 
-        final InputStream stream = resource.adaptTo(InputStream.class);
-        if (stream != null) {
+        final InputStream resourceStream = resource.adaptTo(InputStream.class);
+        if (resourceStream != null) {
+            final CountingInputStream stream = new CountingInputStream(resourceStream);
             String encoding = "utf-8";
             final ResourceMetadata metadata = resource.getResourceMetadata();
             if (metadata.getCharacterEncoding() != null) {
@@ -302,15 +527,19 @@ public class JcrResourceBundle extends ResourceBundle {
                 } catch (IOException ignore) {
                 }
             }
+            return stream.getCount();
         } else {
             log.warn("Not a json file: {}", resource.getPath());
+            return 0;
         }
     }
 
     /**
      * Depth-first traversal of a resource tree
+     *
+     * @return the number of resources traversed
      */
-    private void scanForSlingMessages(final Resource rsrc, final Map<String, Object> targetDictionary) {
+    private int scanForSlingMessages(final Resource rsrc, final Map<String, Object> targetDictionary) {
         final ValueMap vm = rsrc.adaptTo(ValueMap.class);
         if (vm != null) {
             final String value = vm.get(PROP_VALUE, String.class);
@@ -320,16 +549,18 @@ public class JcrResourceBundle extends ResourceBundle {
             }
         }
 
+        int count = 1;
         for (final Resource c : rsrc.getChildren()) {
-            scanForSlingMessages(c, targetDictionary);
+            count += scanForSlingMessages(c, targetDictionary);
         }
+        return count;
     }
 
-    private void loadSlingMessageDictionary(
+    private int loadSlingMessageDictionary(
             final Resource dictionaryResource, final Map<String, Object> targetDictionary) {
         log.info("Loading sling:Message dictionary: {}", dictionaryResource.getPath());
 
-        this.scanForSlingMessages(dictionaryResource, targetDictionary);
+        return this.scanForSlingMessages(dictionaryResource, targetDictionary);
     }
 
     private Set<String> loadPotentialLanguageRoots(
@@ -337,12 +568,14 @@ public class JcrResourceBundle extends ResourceBundle {
             final Locale locale,
             final String baseName,
             final Collection<LocatorPaths> locatorPaths,
+            final LocatorPathsIndex locatorPathsIndex,
             final PathFilter filter) {
         final Set<String> paths = new LinkedHashSet<>();
 
         PotentialLanguageRootCheck check = new PotentialLanguageRootCheck(baseName, locale);
 
         // first consider resource bundles in the JCR repository
+        final long queryStart = System.nanoTime();
         final Iterator<Resource> bundles = resourceResolver.findResources(QUERY_LANGUAGE_ROOTS, "xpath");
         while (bundles.hasNext()) {
             final Resource bundle = bundles.next();
@@ -358,14 +591,18 @@ public class JcrResourceBundle extends ResourceBundle {
             }
         }
 
+        loadProfile.setQueryNanos(System.nanoTime() - queryStart);
+
+        final long traversalStart = System.nanoTime();
         if (locatorPaths != null && !locatorPaths.isEmpty()) {
-            // next traverse the ancestors of all of the locator paths
-            final LocatorPathsVisitor visitor = new LocatorPathsVisitor(check, paths);
+            // next consider the language roots below all of the locator paths, each traversed once per index
             for (final LocatorPaths locator : locatorPaths) {
                 if (filter.includePath(locator.getPath())) {
-                    final Resource parentResource = resourceResolver.getResource(locator.getPath());
-                    if (parentResource != null) {
-                        visitor.accept(parentResource, locator.getTraverseDepth());
+                    for (final LocatorPathsIndex.LanguageRoot root :
+                            locatorPathsIndex.getLanguageRoots(resourceResolver, locator)) {
+                        if (check.isResourceBundle(root.getLanguage(), root.getBaseNames())) {
+                            paths.add(root.getPath());
+                        }
                     }
                 } else {
                     log.warn(
@@ -375,6 +612,7 @@ public class JcrResourceBundle extends ResourceBundle {
                 }
             }
         }
+        loadProfile.setTraversalNanos(System.nanoTime() - traversalStart);
 
         return Collections.unmodifiableSet(paths);
     }
@@ -384,4 +622,75 @@ public class JcrResourceBundle extends ResourceBundle {
         return "JcrResourceBundle [locale=" + locale + ", baseName=" + baseName + ", languageRoots=" + languageRoots
                 + ", parent=" + parent + "]";
     }
+
+    /**
+     * A dictionary loaded by {@link #loadFully(ResourceResolver, Set, Set, LoadProfile)}
+     * before it is merged into the messages of the bundle.
+     */
+    private static final class DictionaryLoad {
+
+        final String path;
+
+        final String strategy;
+
+        final long size;
+
+        final long elapsedNanos;
+
+        final Map<String, Object> dictionary;
+
+        DictionaryLoad(
+                final String path,
+                final String strategy,
+                final long size,
+                final long elapsedNanos,
+                final Map<String, Object> dictionary) {
+            this.path = path;
+            this.strategy = strategy;
+            this.size = size;
+            this.elapsedNanos = elapsedNanos;
+            this.dictionary = dictionary;
+        }
+    }
+
+    /**
+     * Counts the bytes read from the wrapped stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
 }
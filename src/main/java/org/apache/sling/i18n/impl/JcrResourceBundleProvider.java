@@ -18,27 +18,50 @@
  */
 package org.apache.sling.i18n.impl;
 
+import javax.management.NotCompliantMBeanException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.IllformedLocaleException;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Queue;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -52,6 +75,8 @@ import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.commons.scheduler.ScheduleOptions;
 import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.i18n.ResourceBundleChange;
+import org.apache.sling.i18n.ResourceBundleChangeListener;
 import org.apache.sling.i18n.ResourceBundleProvider;
 import org.apache.sling.serviceusermapping.ServiceUserMapped;
 import org.osgi.framework.Bundle;
@@ -62,6 +87,8 @@ import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.util.tracker.BundleTracker;
 import org.slf4j.Logger;
@@ -78,14 +105,10 @@ import static org.apache.sling.i18n.impl.JcrResourceBundle.PROP_PATH;
  * repository.
  */
 @Component(
-        service = {ResourceBundleProvider.class, ResourceChangeListener.class},
+        service = {ResourceBundleProvider.class},
         property = {
             Constants.SERVICE_DESCRIPTION + "=Apache Sling I18n Resource Bundle Provider",
-            Constants.SERVICE_VENDOR + "=The Apache Software Foundation",
-            ResourceChangeListener.PATHS + "=/",
-            ResourceChangeListener.CHANGES + "=ADDED",
-            ResourceChangeListener.CHANGES + "=REMOVED",
-            ResourceChangeListener.CHANGES + "=CHANGED"
+            Constants.SERVICE_VENDOR + "=The Apache Software Foundation"
         })
 @Designate(ocd = Config.class)
 public class JcrResourceBundleProvider
@@ -100,11 +123,29 @@ public class JcrResourceBundleProvider
      */
     private static final Pattern USER_ASSIGNED_COUNTRY_CODES_PATTERN = Pattern.compile("aa|q[m-z]|x[a-z]|zz");
 
+    /** name of the file in the bundle data area keeping the access profile */
+    static final String ACCESS_PROFILE_FILE = "access-profile.properties";
+
+    private static final String SAVE_ACCESS_PROFILE_JOB = "ResourceBundleProvider: save access profile";
+
+    private static final String LOCATOR_PATHS_JOB = "ResourceBundleProvider: process locator paths changes";
+
+    private static final String RELOAD_CHANGES_JOB = "ResourceBundleProvider: reload changed resource bundles";
+
+    private static final String RELOAD_EXTERNAL_CHANGES_JOB =
+            "ResourceBundleProvider: reload resource bundles changed on other instances";
+
+    /** number of threads loading resource bundles in the background for requests */
+    private static final int WORKER_THREADS = 4;
+
     @Reference
     private Scheduler scheduler;
 
-    /** job names of scheduled jobs for reloading individual bundles */
-    private final Collection<String> scheduledJobNames = Collections.synchronizedList(new ArrayList<String>());
+    /** whether the job reloading the bundles affected by changes has been scheduled but did not run yet */
+    private final AtomicBoolean reloadChangesPending = new AtomicBoolean();
+
+    /** whether the job reloading the bundles affected by external changes has been scheduled but did not run yet */
+    private final AtomicBoolean reloadExternalChangesPending = new AtomicBoolean();
 
     @Reference
     private ResourceResolverFactory resourceResolverFactory;
@@ -127,9 +168,22 @@ public class JcrResourceBundleProvider
     private final ConcurrentHashMap<Key, Semaphore> loadingGuards = new ConcurrentHashMap<>();
 
     /**
-     * paths from which JCR resource bundles have been loaded
+     * the languages of all dictionaries in the repository by base name, only
+     * collected if {@link #supportedLocalesOnly} is set. This is <code>null</code>
+     * until collected for the first time, after changes the previous locales
+     * are used until collected again.
      */
-    private final Set<String> languageRootPaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile SupportedLocales supportedLocales;
+
+    /** whether collecting the supported locales has been requested but did not start yet */
+    private final AtomicBoolean supportedLocalesPending = new AtomicBoolean();
+
+    private final ResourceBundleStatistics statistics = new ResourceBundleStatistics();
+
+    /** whether a job reloading all bundles has been scheduled but did not run yet */
+    private final AtomicBoolean reloadAllPending = new AtomicBoolean();
+
+    private ServiceRegistration<ResourceBundleProviderMBean> mbeanRegistration;
 
     /**
      * Return root resource bundle as created on-demand by
@@ -147,7 +201,134 @@ public class JcrResourceBundleProvider
 
     private volatile boolean preloadBundles;
 
-    private volatile long invalidationDelay;
+    /**
+     * Filter deciding which bundles are preloaded if {@link #preloadBundles} is set
+     */
+    private volatile PreloadFilter preloadFilter = new PreloadFilter(null, null, null, null);
+
+    /**
+     * Filter of the locales preloaded right after the default locale, <code>null</code> if none
+     */
+    private volatile PreloadFilter priorityLocales;
+
+    private final PreloadStatus preloadStatus = new PreloadStatus();
+
+    private volatile boolean supportedLocalesOnly;
+
+    /**
+     * recorder of missing keys held by the root resource bundle, <code>null</code>
+     * if recording is disabled
+     */
+    private volatile MissingKeyRecorder missingKeyRecorder;
+
+    /**
+     * request frequencies of the resource bundles, <code>null</code> if
+     * warmup of the hot keys is disabled
+     */
+    private volatile AccessProfile accessProfile;
+
+    private volatile File accessProfileFile;
+
+    private volatile int warmupHotKeys;
+
+    private volatile long locatorPathsBatchDelay;
+
+    /**
+     * paths and glob patterns at which new dictionaries are detected, <code>null</code>
+     * to detect them anywhere in the included paths
+     */
+    private volatile String[] dictionaryPaths;
+
+    private volatile String[] includedPaths;
+
+    /**
+     * registration of this instance as <code>ResourceChangeListener</code>, the
+     * observed paths are updated whenever the language roots or locator paths change
+     */
+    private ServiceRegistration<ResourceChangeListener> listenerRegistration;
+
+    private Set<String> listenerPaths;
+
+    private final Object listenerLock = new Object();
+
+    /**
+     * locator paths registered and unregistered since the last batch has been processed
+     */
+    private final Set<LocatorPaths> addedLocatorPaths = new LinkedHashSet<>();
+
+    private final Set<LocatorPaths> removedLocatorPaths = new LinkedHashSet<>();
+
+    private boolean locatorPathsBatchScheduled;
+
+    private volatile int reloadParallelism;
+
+    /**
+     * runs the scheduled reloads, the scheduler only triggers them
+     */
+    private volatile ReloadExecutor reloadExecutor;
+
+    /**
+     * maximum time in milliseconds a request waits for a resource bundle to be loaded
+     */
+    private volatile long loadTimeout;
+
+    /**
+     * the threads loading resource bundles in the background for requests: the bundles
+     * requests do not wait for longer than the load timeout, the prefetched bundles and
+     * the hot bundles warmed up
+     */
+    private volatile ExecutorService workerExecutor;
+
+    /**
+     * the threads running the reloads and loading the bundles of a new generation,
+     * <code>null</code> if the reloads run on the scheduler threads
+     */
+    private volatile ExecutorService reloadThreads;
+
+    private final ConcurrentHashMap<Key, FutureTask<JcrResourceBundle>> pendingLoads = new ConcurrentHashMap<>();
+
+    /** limits the number of resource bundles read from the repository at the same time */
+    private volatile LoadAdmission loadAdmission;
+
+    /** whether the current thread loads resource bundles no request waits for */
+    private static final ThreadLocal<Boolean> BACKGROUND_LOAD = ThreadLocal.withInitial(() -> false);
+
+    /** listeners notified about changed resource bundles */
+    private final List<ResourceBundleChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /** number of the last change reported to the change listeners */
+    private final AtomicLong changeGeneration = new AtomicLong();
+
+    /**
+     * collects the reloads required by changes until they are due
+     */
+    private volatile ReloadDebouncer reloadDebouncer;
+
+    /**
+     * collects the reloads required by changes on other cluster instances until they are due
+     */
+    private volatile ReloadDebouncer externalReloadDebouncer;
+
+    /**
+     * whether external changes only reload the bundles loaded on this instance
+     */
+    private volatile boolean externalReloadLoadedOnly;
+
+    /**
+     * time of the first change handed to the reload executor which is not yet visible, 0 if none
+     */
+    private final AtomicLong changesPendingSince = new AtomicLong();
+
+    /**
+     * <code>true</code> while a new generation of resource bundles is built
+     */
+    private volatile boolean rebuilding;
+
+    /**
+     * keys of the bundles reloaded while a new generation was built, they are
+     * reloaded again once the new generation has been published
+     */
+    private final Set<Key> reloadedDuringRebuild = ConcurrentHashMap.newKeySet();
 
     /**
      * Add a set of paths to the set that are inspected to
@@ -157,7 +338,12 @@ public class JcrResourceBundleProvider
      */
     public void registerLocatorPaths(Set<LocatorPaths> locatorPathsSet) {
         this.locatorPaths.addAll(locatorPathsSet);
-        clearCache();
+        updateListenerPaths();
+        synchronized (addedLocatorPaths) {
+            removedLocatorPaths.removeAll(locatorPathsSet);
+            addedLocatorPaths.addAll(locatorPathsSet);
+        }
+        scheduleLocatorPathsBatch();
     }
 
     /**
@@ -168,7 +354,95 @@ public class JcrResourceBundleProvider
      */
     public void unregisterLocatorPaths(Set<LocatorPaths> locatorPathsSet) {
         this.locatorPaths.removeAll(locatorPathsSet);
-        clearCache();
+        updateListenerPaths();
+        synchronized (addedLocatorPaths) {
+            addedLocatorPaths.removeAll(locatorPathsSet);
+            removedLocatorPaths.addAll(locatorPathsSet);
+        }
+        scheduleLocatorPathsBatch();
+    }
+
+    /**
+     * Schedules processing the changed locator paths, all changes within the
+     * configured delay are processed together.
+     */
+    private void scheduleLocatorPathsBatch() {
+        if (this.locatorPathsBatchDelay <= 0) {
+            processLocatorPathsBatch();
+            return;
+        }
+        synchronized (addedLocatorPaths) {
+            if (locatorPathsBatchScheduled) {
+                return;
+            }
+            locatorPathsBatchScheduled = true;
+        }
+        final ScheduleOptions options =
+                scheduler.AT(new Date(System.currentTimeMillis() + this.locatorPathsBatchDelay));
+        options.name(LOCATOR_PATHS_JOB);
+        options.canRunConcurrently(false);
+        scheduler.schedule((Runnable) () -> reloadExecutor.execute(this::processLocatorPathsBatch), options);
+    }
+
+    /**
+     * Reloads the cached resource bundles matching the language roots below
+     * the locator paths changed since the last batch. Only those locator paths
+     * are traversed, all bundles are dropped if that is not possible.
+     */
+    void processLocatorPathsBatch() {
+        final Set<LocatorPaths> added;
+        final Set<LocatorPaths> removed;
+        synchronized (addedLocatorPaths) {
+            locatorPathsBatchScheduled = false;
+            added = new LinkedHashSet<>(addedLocatorPaths);
+            removed = new LinkedHashSet<>(removedLocatorPaths);
+            addedLocatorPaths.clear();
+            removedLocatorPaths.clear();
+        }
+        if ((added.isEmpty() && removed.isEmpty()) || resourceBundleRegistry.isClosed()) {
+            return;
+        }
+        log.debug("Processing {} added and {} removed locator paths", added.size(), removed.size());
+        refreshSupportedLocales();
+        if (resourceBundleRegistry.isEmpty()) {
+            resourceBundleRegistry.getLocatorPathsIndex().removeAll(removed);
+            return;
+        }
+
+        final List<LocatorPathsIndex.LanguageRoot> roots = new ArrayList<>();
+        final LocatorPathsIndex locatorPathsIndex = resourceBundleRegistry.getLocatorPathsIndex();
+        try (final ResourceResolver resolver = createResourceResolver()) {
+            for (final LocatorPaths locator : added) {
+                if (this.pathFilter.includePath(locator.getPath())) {
+                    roots.addAll(locatorPathsIndex.getLanguageRoots(resolver, locator));
+                }
+            }
+            for (final LocatorPaths locator : removed) {
+                roots.addAll(locatorPathsIndex.getLanguageRoots(resolver, locator));
+            }
+            locatorPathsIndex.removeAll(removed);
+        } catch (final LoginException | RuntimeException e) {
+            log.warn("Unable to scan changed locator paths, dropping all resource bundles", e);
+            clearCache();
+            return;
+        }
+
+        final Set<Key> affectedKeys = new LinkedHashSet<>();
+        for (final Key key : resourceBundleRegistry.getKeys()) {
+            final PotentialLanguageRootCheck check = new PotentialLanguageRootCheck(key.baseName, key.locale);
+            for (final LocatorPathsIndex.LanguageRoot root : roots) {
+                if (check.isResourceBundle(root.getLanguage(), root.getBaseNames())) {
+                    affectedKeys.add(key);
+                    break;
+                }
+            }
+        }
+        log.info(
+                "Locator paths changed ({} added, {} removed), reloading {} affected resource bundles",
+                added.size(),
+                removed.size(),
+                affectedKeys.size());
+        reloadBundles(affectedKeys);
     }
 
     private ResourceResolver createResourceResolver() throws LoginException {
@@ -205,7 +479,7 @@ public class JcrResourceBundleProvider
 
     @Override
     public ResourceBundle getResourceBundle(final String baseName, Locale locale) {
-        return getResourceBundleInternal(null, baseName, locale);
+        return getResourceBundleInternal(null, baseName, locale, false, true);
     }
 
     // ---------- ResourceChangeListener ------------------------------------------------
@@ -213,7 +487,16 @@ public class JcrResourceBundleProvider
     private static final class ChangeStatus {
         public ResourceResolver resourceResolver;
         public boolean reloadAll = false;
-        public final Set<JcrResourceBundle> reloadBundles = new HashSet<>();
+        /** whether any of the processed changes happened on this instance */
+        public boolean local = false;
+
+        public final Set<Key> reloadKeys = new LinkedHashSet<>();
+        /** changes which might have added a language root below a locator path */
+        public final List<ResourceChange> unresolvedLocatorChanges = new ArrayList<>();
+        /** changes which might have added a new dictionary */
+        public final List<ResourceChange> unresolvedDictionaryChanges = new ArrayList<>();
+        /** changes of language roots which might have changed their language or basenames */
+        public final List<ResourceChange> unresolvedRootChanges = new ArrayList<>();
     }
 
     @Override
@@ -226,20 +509,22 @@ public class JcrResourceBundleProvider
             for (final ResourceChange change : changes) {
 
                 if (!this.pathFilter.includePath(change.getPath())) {
+                    statistics.eventFiltered();
                     continue;
                 }
+                statistics.eventProcessed();
+                status.local |= !change.isExternal();
                 this.onChange(status, change);
                 // if we need to reload all, we can skip all other events
                 if (status.reloadAll) {
                     break;
                 }
             }
-            if (status.reloadAll) {
-                this.scheduleReloadBundles(true);
-            } else {
-                for (final JcrResourceBundle bundle : status.reloadBundles) {
-                    this.scheduleReloadBundle(bundle);
-                }
+            if (!status.reloadAll) {
+                this.resolveChanges(status);
+            }
+            if (status.reloadAll || !status.reloadKeys.isEmpty()) {
+                this.scheduleReloads(!status.local, status.reloadAll, status.reloadKeys);
             }
         } catch (final LoginException le) {
             log.error("Unable to get service resource resolver.", le);
@@ -250,41 +535,165 @@ public class JcrResourceBundleProvider
         }
     }
 
-    private void onChange(final ChangeStatus status, final ResourceChange change) throws LoginException {
+    private void onChange(final ChangeStatus status, final ResourceChange change) {
         log.debug("onChange: Detecting change {} for path '{}'", change.getType(), change.getPath());
 
-        // if this change was on languageRootPath level this might change basename and locale as well, therefore
-        // invalidate everything
+        final LocatorPathsIndex locatorPathsIndex = resourceBundleRegistry.getLocatorPathsIndex();
+        if (locatorPathsIndex.covers(change.getPath()) && !locatorPathsIndex.update(change)) {
+            status.unresolvedLocatorChanges.add(change);
+        }
+
+        final Set<String> languageRootPaths = resourceBundleRegistry.getLanguageRootPaths();
         if (languageRootPaths.contains(change.getPath())) {
-            log.debug(
-                    "onChange: Detected change of cached language root '{}', removing all cached ResourceBundles",
-                    change.getPath());
-            status.reloadAll = true;
+            // the bundles loaded from this language root are reloaded, if the change
+            // might have changed its language or basenames, the bundles matching the
+            // new values are reloaded as well
+            log.debug("onChange: Detected change of cached language root '{}'", change.getPath());
+            addBundlesOfLanguageRoot(status, change.getPath());
+            if (change.getType() != ResourceChange.ChangeType.REMOVED
+                    && !Boolean.FALSE.equals(ResourceChanges.touches(
+                            change,
+                            JcrResourceBundle.PROP_LANGUAGE,
+                            JcrResourceBundle.PROP_BASENAME,
+                            JcrResourceBundle.PROP_MIXINS))) {
+                status.unresolvedRootChanges.add(change);
+            }
         } else {
             for (final String root : languageRootPaths) {
                 if (change.getPath().startsWith(root)) {
                     // figure out which JcrResourceBundles from the cached ones is affected
-                    for (JcrResourceBundle bundle : resourceBundleRegistry.getResourceBundles()) {
-                        if (bundle.getLanguageRootPaths().contains(root)) {
-                            // reload it
-                            log.debug(
-                                    "onChange: Resource changes below '{}', reloading ResourceBundle '{}'",
-                                    root,
-                                    bundle);
-                            status.reloadBundles.add(bundle);
-                        }
-                    }
+                    log.debug("onChange: Resource changes below '{}'", root);
+                    addBundlesOfLanguageRoot(status, root);
                 }
             }
 
-            // may be a completely new dictionary
-            if (status.resourceResolver == null) {
-                status.resourceResolver = createResourceResolver();
+            // may be a completely new dictionary, which can only be decided by reading the resource
+            if (mayBeDictionaryResource(change, languageRootPaths)) {
+                status.unresolvedDictionaryChanges.add(change);
             }
+        }
+    }
+
+    /**
+     * Checks whether the change might concern a new dictionary based on the
+     * change itself. Removed resources and changes below loaded language roots
+     * are no new dictionaries, neither are resources whose properties are
+     * known and do not include any dictionary property.
+     */
+    private static boolean mayBeDictionaryResource(final ResourceChange change, final Set<String> languageRootPaths) {
+        if (change.getType() == ResourceChange.ChangeType.REMOVED) {
+            return false;
+        }
+        for (final String root : languageRootPaths) {
+            if (change.getPath().startsWith(root.concat("/"))) {
+                // the bundles loaded from the language root are reloaded anyway
+                return false;
+            }
+        }
+        final Boolean touched = change.getPath().endsWith(".json")
+                ? ResourceChanges.touches(change, JcrResourceBundle.PROP_MIXINS)
+                : ResourceChanges.touches(
+                        change,
+                        JcrResourceBundle.PROP_VALUE,
+                        JcrResourceBundle.PROP_KEY,
+                        JcrResourceBundle.PROP_MIXINS);
+        return touched == null || touched;
+    }
+
+    private void addBundlesOfLanguageRoot(final ChangeStatus status, final String root) {
+        for (final JcrResourceBundle bundle : resourceBundleRegistry.getResourceBundles()) {
+            if (bundle.getLanguageRootPaths().contains(root)) {
+                log.debug("onChange: Reloading ResourceBundle '{}' loaded from '{}'", bundle, root);
+                status.reloadKeys.add(new Key(bundle.getBaseName(), bundle.getLocale()));
+            }
+        }
+    }
+
+    /**
+     * Resolves the changes which could not be classified by the change itself
+     * in one pass with a single resource resolver.
+     */
+    private void resolveChanges(final ChangeStatus status) throws LoginException {
+        final int unresolved = status.unresolvedLocatorChanges.size()
+                + status.unresolvedDictionaryChanges.size()
+                + status.unresolvedRootChanges.size();
+        if (unresolved == 0) {
+            return;
+        }
+        log.debug("onChange: Reading {} changed resources", unresolved);
+        status.resourceResolver = createResourceResolver();
+        final LocatorPathsIndex locatorPathsIndex = resourceBundleRegistry.getLocatorPathsIndex();
+        for (final ResourceChange change : status.unresolvedLocatorChanges) {
+            locatorPathsIndex.update(status.resourceResolver, change);
+        }
+        for (final ResourceChange change : status.unresolvedRootChanges) {
+            final Resource root = status.resourceResolver.getResource(change.getPath());
+            if (root != null) {
+                addBundlesOfLanguage(status, root);
+            }
+        }
+        for (final ResourceChange change : status.unresolvedDictionaryChanges) {
             if (isDictionaryResource(status.resourceResolver, change)) {
-                status.reloadAll = true;
+                final Resource root = getLanguageRoot(status.resourceResolver.getResource(change.getPath()));
+                if (root == null) {
+                    log.debug(
+                            "onChange: Unable to find the language root of the new dictionary at '{}', "
+                                    + "reloading all ResourceBundles",
+                            change.getPath());
+                    status.reloadAll = true;
+                    return;
+                }
+                log.debug("onChange: New dictionary at '{}' in language root '{}'", change.getPath(), root.getPath());
+                addBundlesOfLanguage(status, root);
+            }
+        }
+    }
+
+    /**
+     * Returns the nearest resource having a <code>jcr:language</code> property,
+     * starting at the given resource, or <code>null</code> if there is none.
+     */
+    private static Resource getLanguageRoot(Resource resource) {
+        while (resource != null) {
+            final ValueMap properties = resource.getValueMap();
+            if (properties.get(PROP_LANGUAGE, String.class) != null) {
+                return resource;
             }
+            resource = resource.getParent();
         }
+        return null;
+    }
+
+    /**
+     * Adds the keys of all cached and preloaded bundles which contain the
+     * dictionaries of the given language root.
+     */
+    private void addBundlesOfLanguage(final ChangeStatus status, final Resource root) {
+        final ValueMap properties = root.getValueMap();
+        final String language = properties.get(PROP_LANGUAGE, String.class);
+        if (language == null || language.isEmpty()) {
+            return;
+        }
+        // basename might be a multivalue (see https://issues.apache.org/jira/browse/SLING-4547)
+        final String[] baseNames = properties.get(PROP_BASENAME, new String[] {});
+        for (final Key key : resourceBundleRegistry.getKeys()) {
+            if (new PotentialLanguageRootCheck(key.baseName, key.locale).isResourceBundle(language, baseNames)) {
+                status.reloadKeys.add(key);
+            }
+        }
+        if (this.preloadBundles) {
+            final Locale locale = toLocale(language);
+            // preloaded like the dictionaries found by the query
+            final List<String> preloadBaseNames =
+                    baseNames.length > 0 ? Arrays.asList(baseNames) : Collections.singletonList(null);
+            for (final String baseName : preloadBaseNames) {
+                final Key key = new Key(baseName, locale);
+                if (isPreloaded(key)) {
+                    status.reloadKeys.add(key);
+                }
+            }
+        }
+        refreshSupportedLocales();
     }
 
     private boolean isDictionaryResource(final ResourceResolver resolver, final ResourceChange change) {
@@ -341,80 +750,367 @@ public class JcrResourceBundleProvider
         return false;
     }
 
-    private void scheduleReloadBundles(final boolean withDelay) {
-        // cancel all reload individual bundle jobs!
-        synchronized (scheduledJobNames) {
-            for (String scheduledJobName : scheduledJobNames) {
-                scheduler.unschedule(scheduledJobName);
-            }
-        }
-        scheduledJobNames.clear();
-        // defer this job
-        final ScheduleOptions options;
-        if (withDelay) {
-            options = scheduler.AT(new Date(System.currentTimeMillis() + this.invalidationDelay));
-        } else {
-            options = scheduler.NOW();
-        }
+    private void scheduleReloadBundles() {
+        final ScheduleOptions options = scheduler.NOW();
         options.name("ResourceBundleProvider: reload all resource bundles");
+        options.canRunConcurrently(false);
+        reloadAllPending.set(true);
         scheduler.schedule(
                 new Runnable() {
                     @Override
                     public void run() {
-                        log.info("Reloading all resource bundles");
-                        clearCache();
-                        preloadBundles();
+                        reloadAllPending.set(false);
+                        reloadExecutor.reloadAll();
                     }
                 },
                 options);
     }
 
-    private void scheduleReloadBundle(final JcrResourceBundle bundle) {
-        final Key key = new Key(bundle.getBaseName(), bundle.getLocale());
+    void reloadAllBundles() {
+        log.info("Reloading all resource bundles");
+        statistics.reloadedAll();
+        if (resourceBundleRegistry.isEmpty()) {
+            clearCache();
+            preloadBundles();
+        } else {
+            rebuildGeneration();
+        }
+        warmupHotKeys();
+    }
+
+    /**
+     * Builds a new generation of all cached and preloaded resource bundles in
+     * the background and publishes it at once. The current generation keeps
+     * serving requests in the meantime and is kept if the new one cannot be built.
+     * <p>
+     * Bundles may already be loaded on demand before the first reload of all
+     * bundles, so the preload tiers are marked as completed here as well.
+     */
+    private void rebuildGeneration() {
+        try {
+            rebuildGenerationInternal();
+        } finally {
+            preloadCompleted();
+        }
+    }
+
+    private void rebuildGenerationInternal() {
+        final Set<Key> keys = new LinkedHashSet<>();
+        if (this.preloadBundles) {
+            try (final ResourceResolver resolver = createResourceResolver()) {
+                keys.addAll(collectPreloadKeys(resolver));
+            } catch (final LoginException le) {
+                log.error("Unable to create service user resource resolver.", le);
+                return;
+            }
+        }
+        keys.addAll(resourceBundleRegistry.getKeys());
+
+        this.rebuilding = true;
+        try {
+            final Generation next = buildGeneration(keys);
+            if (next != null) {
+                final Map<Key, ResourceBundleRegistry.Entry> previous = snapshotForChangeListeners();
+                // bundles taken over still refer to the parent bundles of the previous generation
+                reloadedDuringRebuild.addAll(resourceBundleRegistry.publish(next));
+                refreshSupportedLocales();
+                updateListenerPaths();
+                log.info("Published new generation of {} resource bundles", next.entries.size());
+                if (previous != null) {
+                    final Set<Key> changed = new HashSet<>(previous.keySet());
+                    changed.addAll(next.entries.keySet());
+                    notifyChangeListeners(resourceBundleRegistry.parentsFirst(changed, previous), previous);
+                }
+            }
+        } finally {
+            this.rebuilding = false;
+        }
+
+        // bundles changed while building might have been loaded before the change
+        final Set<Key> reloaded = new LinkedHashSet<>();
+        for (final Iterator<Key> i = reloadedDuringRebuild.iterator(); i.hasNext(); ) {
+            reloaded.add(i.next());
+            i.remove();
+        }
+        if (!reloaded.isEmpty()) {
+            reloadBundles(reloaded);
+        }
+    }
+
+    /**
+     * Loads the resource bundles with the given keys into a new generation. The
+     * calling thread loads the bundles together with up to <code>reload.parallelism - 1</code>
+     * other reload threads, so the generation is built even if none of them is idle.
+     */
+    private Generation buildGeneration(final Collection<Key> keys) {
+        final GenerationBuilder builder = new GenerationBuilder();
+        final Queue<Key> queue = new ConcurrentLinkedQueue<>(keys);
+        final ExecutorService helpers = this.reloadThreads;
+        for (int i = 1; helpers != null && i < this.reloadParallelism; i++) {
+            try {
+                helpers.execute(() -> builder.loadAll(queue));
+            } catch (final RejectedExecutionException e) {
+                // deactivated in the meantime
+                break;
+            }
+        }
+        try (final ResourceResolver resolver = createResourceResolver()) {
+            builder.loadAll(resolver, queue);
+            // wait for the bundles still loaded by the workers
+            for (final Key key : keys) {
+                if (resourceBundleRegistry.isClosed()) {
+                    return null;
+                }
+                builder.load(resolver, key);
+            }
+            return builder.generation;
+        } catch (final LoginException le) {
+            log.error("Unable to create service user resource resolver.", le);
+            return null;
+        } catch (final ExecutionException e) {
+            log.warn("Unable to build a new generation of resource bundles, keeping the current one", e.getCause());
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            // the workers stop once the queue is empty
+            queue.clear();
+        }
+    }
+
+    /**
+     * Loads the resource bundles of a new {@link Generation}. Every bundle is
+     * loaded once by the first thread requiring it, after its parent bundle.
+     */
+    private final class GenerationBuilder {
+
+        private final Generation generation = new Generation();
+
+        private final ConcurrentHashMap<Key, FutureTask<JcrResourceBundle>> loads = new ConcurrentHashMap<>();
+
+        /**
+         * Loads the bundles taken from the given queue on a worker thread. Failures are
+         * reported to the building thread, which waits for all bundles.
+         */
+        void loadAll(final Queue<Key> queue) {
+            if (resourceBundleRegistry.isClosed()) {
+                return;
+            }
+            try (final ResourceResolver resolver = createResourceResolver()) {
+                loadAll(resolver, queue);
+            } catch (final LoginException | ExecutionException e) {
+                log.debug("Stopped loading resource bundles of the new generation", e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void loadAll(final ResourceResolver resolver, final Queue<Key> queue)
+                throws InterruptedException, ExecutionException {
+            Key key;
+            while (!resourceBundleRegistry.isClosed() && (key = queue.poll()) != null) {
+                load(resolver, key);
+            }
+        }
 
-        // defer this job
-        ScheduleOptions options = scheduler.AT(new Date(System.currentTimeMillis() + this.invalidationDelay));
-        final String jobName = "ResourceBundleProvider: reload bundle with key " + key.toString();
-        scheduledJobNames.add(jobName);
+        JcrResourceBundle load(final ResourceResolver resolver, final Key key)
+                throws InterruptedException, ExecutionException {
+            FutureTask<JcrResourceBundle> load = loads.get(key);
+            if (load == null) {
+                final FutureTask<JcrResourceBundle> newLoad = new FutureTask<>(() -> create(resolver, key));
+                load = loads.putIfAbsent(key, newLoad);
+                if (load == null) {
+                    load = newLoad;
+                    load.run();
+                }
+            }
+            return load.get();
+        }
+
+        private JcrResourceBundle create(final ResourceResolver resolver, final Key key) throws Exception {
+            final Locale parentLocale = getParentLocale(key.locale);
+            final ResourceBundle parentBundle = parentLocale != null
+                    ? load(resolver, new Key(key.baseName, parentLocale))
+                    : getRootResourceBundle();
+            final JcrResourceBundle resourceBundle =
+                    readResourceBundle(resolver, key, parentBundle, generation.locatorPathsIndex, true);
+            generation.add(key, resourceBundle, toKey(parentBundle), isPreloaded(key));
+            return resourceBundle;
+        }
+    }
+
+    /**
+     * Adds the reloads required by changes to the pending ones and (re)schedules
+     * the job reloading them once they are due. Changes which only happened on
+     * other cluster instances are debounced and staggered separately.
+     */
+    private void scheduleReloads(final boolean external, final boolean all, final Set<Key> keys) {
+        final ReloadDebouncer debouncer = external ? externalReloadDebouncer : reloadDebouncer;
+        final String jobName = external ? RELOAD_EXTERNAL_CHANGES_JOB : RELOAD_CHANGES_JOB;
+        final long due = debouncer.add(System.currentTimeMillis(), all, keys);
+        // replaces the job scheduled for the previous changes
+        scheduler.unschedule(jobName);
+        final ScheduleOptions options = scheduler.AT(new Date(due));
         options.name(jobName);
-        scheduler.schedule(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        reloadBundle(key);
-                        scheduledJobNames.remove(jobName);
-                    }
-                },
-                options);
+        options.canRunConcurrently(false);
+        (external ? reloadExternalChangesPending : reloadChangesPending).set(true);
+        scheduler.schedule((Runnable) () -> reloadChanges(external), options);
+    }
+
+    private void reloadChanges(final boolean external) {
+        (external ? reloadExternalChangesPending : reloadChangesPending).set(false);
+        final ReloadDebouncer.Batch batch = (external ? externalReloadDebouncer : reloadDebouncer).take();
+        if (batch == null) {
+            return;
+        }
+        if (batch.isReloadAll()) {
+            changesPending(batch);
+            reloadExecutor.reloadAll();
+        } else if (external && externalReloadLoadedOnly) {
+            // the bundles not loaded here are loaded from the current repository state on first use anyway
+            final Set<Key> loadedKeys = resourceBundleRegistry.getKeys();
+            loadedKeys.retainAll(batch.getKeys());
+            if (!loadedKeys.isEmpty()) {
+                changesPending(batch);
+                reloadExecutor.reload(loadedKeys);
+            }
+        } else {
+            changesPending(batch);
+            reloadExecutor.reload(batch.getKeys());
+        }
+    }
+
+    /**
+     * Records the first change of the given batch as pending until the next
+     * reload makes it visible.
+     */
+    private void changesPending(final ReloadDebouncer.Batch batch) {
+        changesPendingSince.accumulateAndGet(
+                batch.getFirstEvent(), (since, first) -> since == 0 ? first : Math.min(since, first));
+    }
+
+    /**
+     * Runs the given reload and records the time since the first change made visible by it.
+     */
+    private void reloadChanged(final Runnable reload) {
+        final long since = changesPendingSince.getAndSet(0);
+        reload.run();
+        if (since > 0) {
+            statistics.changesVisible(System.currentTimeMillis() - since);
+        }
     }
 
     void reloadBundle(final Key key) {
-        log.info("Reloading resource bundle for {}", key);
-        if (!this.preloadBundles) {
-            resourceBundleRegistry.unregisterResourceBundle(key);
+        reloadBundles(Collections.singleton(key));
+    }
+
+    /**
+     * Queues a reload of the bundles with the given keys on the reload
+     * executor, so that it is merged with and never runs concurrently to the
+     * other reloads.
+     */
+    void queueReload(final Collection<Key> keys) {
+        reloadExecutor.reload(keys);
+    }
+
+    /**
+     * Queues a reload of all bundles on the reload executor.
+     */
+    void queueReloadAll() {
+        reloadExecutor.reloadAll();
+    }
+
+    /**
+     * Reloads the bundles with the given keys and all bundles depending on
+     * them. Each bundle is reloaded once, after its parent bundle.
+     */
+    void reloadBundles(final Collection<Key> keys) {
+        final List<Key> closure = resourceBundleRegistry.getDependencyClosure(keys);
+        final Map<Key, ResourceBundleRegistry.Entry> previous = snapshotForChangeListeners();
+        log.debug("Reloading resource bundles {} including dependent bundles {}", keys, closure);
+        for (final Key key : closure) {
+            log.info("Reloading resource bundle for {}", key);
+            statistics.reloadedBundle();
+            if (this.rebuilding) {
+                reloadedDuringRebuild.add(key);
+            }
+            if (!isPreloaded(key)) {
+                resourceBundleRegistry.unregisterResourceBundle(key);
+            } else if (!resourceBundleRegistry.isClosed()) {
+                // reload the bundle from the repository (will also fill cache and register as a service)
+                getResourceBundleInternal(null, key.baseName, key.locale, true, false);
+            }
         }
+        notifyChangeListeners(closure, previous);
+    }
 
-        Collection<JcrResourceBundle> dependentBundles = new ArrayList<>();
-        // this bundle might be a parent of a cached bundle -> invalidate those dependent bundles as well
-        for (JcrResourceBundle bundle : resourceBundleRegistry.getResourceBundles()) {
-            if (bundle.getParent() instanceof JcrResourceBundle) {
-                JcrResourceBundle parentBundle = (JcrResourceBundle) bundle.getParent();
-                Key parentKey = new Key(parentBundle.getBaseName(), parentBundle.getLocale());
-                if (parentKey.equals(key)) {
-                    log.debug(
-                            "Also invalidate dependent bundle {} which has bundle {} as parent", bundle, parentBundle);
-                    dependentBundles.add(bundle);
+    /**
+     * Returns the registered bundles to compare the changed bundles with or
+     * <code>null</code> if there are no change listeners.
+     */
+    private Map<Key, ResourceBundleRegistry.Entry> snapshotForChangeListeners() {
+        return changeListeners.isEmpty() ? null : resourceBundleRegistry.getEntries();
+    }
+
+    /**
+     * Notifies the change listeners about the bundles with the given keys by comparing the
+     * registered bundles with the previous ones. The keys must be ordered parents first.
+     */
+    private void notifyChangeListeners(final List<Key> keys, final Map<Key, ResourceBundleRegistry.Entry> previous) {
+        if (previous == null || resourceBundleRegistry.isClosed()) {
+            return;
+        }
+        final Map<Key, Set<String>> changedKeysByKey = new HashMap<>();
+        final List<ResourceBundleChange> changes = new ArrayList<>();
+        for (final Key key : keys) {
+            final ResourceBundleRegistry.Entry oldEntry = previous.get(key);
+            if (oldEntry == null) {
+                // nobody could have used a bundle which has just been loaded
+                changedKeysByKey.put(key, null);
+                continue;
+            }
+            final JcrResourceBundle newBundle = resourceBundleRegistry.getResourceBundle(key);
+            // unknown if the bundle has been dropped
+            Set<String> changedKeys = newBundle != null ? newBundle.getChangedKeys(oldEntry.resourceBundle) : null;
+            final Key parentKey = resourceBundleRegistry.getParentKey(key, previous);
+            if (changedKeys != null && changedKeysByKey.containsKey(parentKey)) {
+                final Set<String> parentChangedKeys = changedKeysByKey.get(parentKey);
+                if (parentChangedKeys != null) {
+                    changedKeys.addAll(parentChangedKeys);
+                } else {
+                    changedKeys = null;
                 }
             }
+            changedKeysByKey.put(key, changedKeys);
+            if (changedKeys == null || !changedKeys.isEmpty()) {
+                changes.add(new ResourceBundleChangeImpl(key.baseName, key.locale, changedKeys));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
         }
-        for (JcrResourceBundle dependentBundle : dependentBundles) {
-            reloadBundle(new Key(dependentBundle.getBaseName(), dependentBundle.getLocale()));
+        final long generation = changeGeneration.incrementAndGet();
+        final List<ResourceBundleChange> reported = Collections.unmodifiableList(changes);
+        for (final ResourceBundleChangeListener listener : changeListeners) {
+            try {
+                listener.onChange(generation, reported);
+            } catch (final RuntimeException e) {
+                log.warn("Resource bundle change listener " + listener + " failed", e);
+            }
         }
+    }
 
-        if (this.preloadBundles && !resourceBundleRegistry.isClosed()) {
-            // reload the bundle from the repository (will also fill cache and register as a service)
-            getResourceBundleInternal(null, key.baseName, key.locale, true);
-        }
+    @Reference(
+            service = ResourceBundleChangeListener.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC)
+    protected void bindResourceBundleChangeListener(final ResourceBundleChangeListener listener) {
+        this.changeListeners.add(listener);
+    }
+
+    protected void unbindResourceBundleChangeListener(final ResourceBundleChangeListener listener) {
+        this.changeListeners.remove(listener);
     }
 
     // ---------- SCR Integration ----------------------------------------------
@@ -428,26 +1124,102 @@ public class JcrResourceBundleProvider
     protected void activate(final BundleContext context, final Config config) throws LoginException {
         this.defaultLocale = toLocale(config.locale_default());
         this.preloadBundles = config.preload_bundles();
-        this.invalidationDelay = config.invalidation_delay();
+        this.preloadFilter = new PreloadFilter(
+                config.preload_locales(),
+                config.preload_locales_excluded(),
+                config.preload_basenames(),
+                config.preload_basenames_excluded());
+        this.priorityLocales = config.preload_priority_locales().length > 0
+                ? new PreloadFilter(config.preload_priority_locales(), null, null, null)
+                : null;
+        this.supportedLocalesOnly = config.supported_locales_only();
+        this.missingKeyRecorder = config.missing_keys_sample_rate() > 0
+                ? new MissingKeyRecorder(config.missing_keys_sample_rate())
+                : null;
         this.pathFilter = new PathFilter(config.included_paths(), config.excluded_paths());
+        this.includedPaths = config.included_paths();
+        this.dictionaryPaths = config.dictionary_paths().length > 0 ? config.dictionary_paths() : null;
+        this.locatorPathsBatchDelay = config.locator_paths_batch_delay();
+        this.reloadParallelism = Math.max(1, config.reload_parallelism());
+        this.loadTimeout = config.load_timeout();
+        this.workerExecutor = newThreadPool(WORKER_THREADS, "sling-i18n-worker-");
+        this.reloadThreads =
+                config.reload_threads() > 0 ? newThreadPool(config.reload_threads(), "sling-i18n-reloader-") : null;
+
+        this.loadAdmission = new LoadAdmission(config.load_max_concurrent(), statistics);
 
         this.resourceBundleRegistry = new ResourceBundleRegistry(context);
+        this.reloadExecutor = new ReloadExecutor(
+                this.reloadThreads != null ? this.reloadThreads : Runnable::run,
+                Math.max(1, config.reload_queue_size()),
+                () -> runInBackground(() -> reloadChanged(this::reloadAllBundles)),
+                keys -> runInBackground(() -> reloadChanged(() -> reloadBundles(keys))),
+                statistics);
+        this.reloadDebouncer = new ReloadDebouncer(
+                config.invalidation_delay(), config.invalidation_max_delay(), config.invalidation_adaptive());
+        this.externalReloadDebouncer = new ReloadDebouncer(
+                config.external_invalidation_delay() > 0
+                        ? config.external_invalidation_delay()
+                        : config.invalidation_delay(),
+                config.external_invalidation_max_delay() > 0
+                        ? config.external_invalidation_max_delay()
+                        : config.invalidation_max_delay(),
+                config.invalidation_adaptive(),
+                staggerOffset(context, config.external_stagger(), config.external_stagger_node_based()));
+        this.externalReloadLoadedOnly = config.external_reload_loaded_only();
 
         this.locatorPathsTracker = new BundleTracker<>(context, Bundle.ACTIVE, new LocatorPathsTracker(this));
         this.locatorPathsTracker.open();
 
+        this.mbeanRegistration = registerMBean(context);
+        registerListener(context);
+        this.preloadStatus.register(context);
+
+        this.warmupHotKeys = config.warmup_hot_keys();
+        if (this.warmupHotKeys > 0) {
+            activateAccessProfile(context, config.access_profile_save_interval());
+        }
+
         if (this.resourceResolverFactory != null) { // this is only null during test execution!
-            scheduleReloadBundles(false);
+            refreshSupportedLocales();
+            scheduleReloadBundles();
         }
     }
 
     @Deactivate
     protected void deactivate() {
 
+        unregisterListener();
+
+        this.preloadStatus.unregister();
+
+        if (this.accessProfile != null) {
+            scheduler.unschedule(SAVE_ACCESS_PROFILE_JOB);
+            saveAccessProfile();
+            this.accessProfile = null;
+        }
+
+        if (this.mbeanRegistration != null) {
+            this.mbeanRegistration.unregister();
+            this.mbeanRegistration = null;
+        }
+
         if (this.locatorPathsTracker != null) {
             this.locatorPathsTracker.close();
             this.locatorPathsTracker = null;
         }
+        scheduler.unschedule(LOCATOR_PATHS_JOB);
+        scheduler.unschedule(RELOAD_CHANGES_JOB);
+        scheduler.unschedule(RELOAD_EXTERNAL_CHANGES_JOB);
+        if (this.reloadExecutor != null) {
+            this.reloadExecutor.close();
+        }
+        if (this.workerExecutor != null) {
+            this.workerExecutor.shutdownNow();
+        }
+        if (this.reloadThreads != null) {
+            this.reloadThreads.shutdownNow();
+        }
 
         if (this.resourceBundleRegistry != null) {
             this.resourceBundleRegistry.close();
@@ -456,6 +1228,83 @@ public class JcrResourceBundleProvider
         clearCache();
     }
 
+    private static ExecutorService newThreadPool(final int threads, final String namePrefix) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the supplier of the offsets added to the due time of external changes,
+     * either random or derived from the framework UUID of this instance.
+     */
+    private static LongSupplier staggerOffset(
+            final BundleContext context, final long stagger, final boolean nodeBased) {
+        if (stagger <= 0) {
+            return () -> 0;
+        }
+        final String uuid = nodeBased ? context.getProperty(Constants.FRAMEWORK_UUID) : null;
+        if (uuid != null) {
+            final long offset = Math.floorMod((long) uuid.hashCode(), stagger + 1);
+            return () -> offset;
+        }
+        return () -> ThreadLocalRandom.current().nextLong(stagger + 1);
+    }
+
+    private void activateAccessProfile(final BundleContext context, final long saveInterval) {
+        final AccessProfile profile = new AccessProfile();
+        final File file = context.getDataFile(ACCESS_PROFILE_FILE);
+        if (file != null && file.exists()) {
+            try {
+                profile.load(file);
+                log.info("Loaded access profile with {} resource bundles from {}", profile.size(), file);
+            } catch (final IOException e) {
+                log.warn("Unable to load access profile from " + file, e);
+            }
+        }
+        this.accessProfileFile = file;
+        this.accessProfile = profile;
+
+        if (file != null && saveInterval > 0) {
+            // save endlessly, starting after the first interval
+            final ScheduleOptions options =
+                    scheduler.AT(new Date(System.currentTimeMillis() + saveInterval * 1000), -1, saveInterval);
+            options.name(SAVE_ACCESS_PROFILE_JOB);
+            options.canRunConcurrently(false);
+            scheduler.schedule((Runnable) this::saveAccessProfile, options);
+        }
+    }
+
+    private void saveAccessProfile() {
+        final AccessProfile profile = this.accessProfile;
+        final File file = this.accessProfileFile;
+        if (profile != null && file != null) {
+            try {
+                profile.save(file);
+                log.debug("Saved access profile with {} resource bundles to {}", profile.size(), file);
+            } catch (final IOException e) {
+                log.warn("Unable to save access profile to " + file, e);
+            }
+        }
+    }
+
+    private ServiceRegistration<ResourceBundleProviderMBean> registerMBean(final BundleContext context) {
+        try {
+            final Dictionary<String, Object> props = new Hashtable<>();
+            props.put("jmx.objectname", ResourceBundleProviderMBeanImpl.OBJECT_NAME);
+            props.put(Constants.SERVICE_DESCRIPTION, "Apache Sling I18n Resource Bundle Provider Statistics");
+            props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+            return context.registerService(
+                    ResourceBundleProviderMBean.class, new ResourceBundleProviderMBeanImpl(this), props);
+        } catch (final NotCompliantMBeanException e) {
+            log.warn("Unable to register the resource bundle provider MBean", e);
+            return null;
+        }
+    }
+
     // ---------- internal -----------------------------------------------------
 
     /**
@@ -469,65 +1318,270 @@ public class JcrResourceBundleProvider
      */
     private ResourceBundle getResourceBundleInternal(
             ResourceResolver optionalResolver, String baseName, Locale locale) {
-        return getResourceBundleInternal(optionalResolver, baseName, locale, false);
+        return getResourceBundleInternal(optionalResolver, baseName, locale, false, false);
     }
 
+    /**
+     * @param request whether the resource bundle is requested through the
+     *            public API, only these lookups are counted as cache hits and
+     *            misses and recorded in the access profile
+     */
     private ResourceBundle getResourceBundleInternal(
-            ResourceResolver optionalResolver, final String baseName, Locale locale, final boolean forceReload) {
+            ResourceResolver optionalResolver,
+            final String baseName,
+            Locale locale,
+            final boolean forceReload,
+            final boolean request) {
         if (locale == null) {
             locale = defaultLocale;
         }
 
         final Key key = new Key(baseName, locale);
-        JcrResourceBundle resourceBundle = !forceReload ? resourceBundleRegistry.getResourceBundle(key) : null;
-        if (resourceBundle != null) {
+        final JcrResourceBundle cachedBundle = !forceReload ? resourceBundleRegistry.getResourceBundle(key) : null;
+        if (cachedBundle == null && this.supportedLocalesOnly && !forceReload) {
+            // only cached bundles are known to be supported, check all others before loading
+            final Locale supportedLocale = getSupportedLocale(baseName, locale);
+            if (!supportedLocale.equals(locale)) {
+                log.debug(
+                        "getResourceBundleInternal({}): no dictionaries available, using locale {}",
+                        key,
+                        supportedLocale);
+                statistics.redirected();
+                return getResourceBundleInternal(optionalResolver, baseName, supportedLocale, false, request);
+            }
+        }
+        final AccessProfile profile = request ? this.accessProfile : null;
+        if (profile != null) {
+            // record the bundle actually served, so that unsupported locales are not warmed up
+            profile.record(key);
+        }
+        final ResourceBundle resourceBundle;
+        if (cachedBundle != null) {
             log.debug("getResourceBundleInternal({}): got cache hit on first try", key);
+            if (request) {
+                statistics.cacheHit();
+            }
+            resourceBundle = cachedBundle;
         } else {
-            if (loadingGuards.get(key) == null) {
-                loadingGuards.putIfAbsent(key, new Semaphore(1));
+            if (request) {
+                statistics.cacheMiss();
             }
-            final Semaphore loadingGuard = loadingGuards.get(key);
-            try {
-                loadingGuard.acquire();
-                resourceBundle = !forceReload ? resourceBundleRegistry.getResourceBundle(key) : null;
-                if (resourceBundle != null) {
-                    log.debug("getResourceBundleInternal({}): got cache hit on second try", key);
-                } else {
-                    log.debug("getResourceBundleInternal({}): reading from Repository", key);
-                    ResourceResolver localResolver = null;
-                    try {
-                        if (optionalResolver == null) {
-                            localResolver = createResourceResolver();
-                            optionalResolver = localResolver;
-                        }
+            if (optionalResolver == null && !forceReload && this.loadTimeout > 0) {
+                resourceBundle = loadResourceBundleWithTimeout(key);
+            } else {
+                resourceBundle = loadResourceBundle(optionalResolver, key, forceReload);
+            }
+        }
+        log.trace("getResourceBundleInternal({}) ==> {}", key, resourceBundle);
+        return resourceBundle;
+    }
+
+    /**
+     * Loads the resource bundle with the given key unless another thread
+     * loaded it in the meantime.
+     */
+    private JcrResourceBundle loadResourceBundle(
+            ResourceResolver optionalResolver, final Key key, final boolean forceReload) {
+        JcrResourceBundle resourceBundle = null;
+        if (loadingGuards.get(key) == null) {
+            loadingGuards.putIfAbsent(key, new Semaphore(1));
+        }
+        final Semaphore loadingGuard = loadingGuards.get(key);
+        try {
+            loadingGuard.acquire();
+            resourceBundle = !forceReload ? resourceBundleRegistry.getResourceBundle(key) : null;
+            if (resourceBundle != null) {
+                log.debug("getResourceBundleInternal({}): got cache hit on second try", key);
+            } else {
+                log.debug("getResourceBundleInternal({}): reading from Repository", key);
+                ResourceResolver localResolver = null;
+                try {
+                    if (optionalResolver == null) {
+                        localResolver = createResourceResolver();
+                        optionalResolver = localResolver;
+                    }
 
-                        resourceBundle = createResourceBundle(optionalResolver, key.baseName, key.locale);
-                        resourceBundleRegistry.registerResourceBundle(key, resourceBundle);
+                    final ResourceBundle parentBundle = getParentResourceBundle(optionalResolver, key);
+                    resourceBundle = readResourceBundle(
+                            optionalResolver,
+                            key,
+                            parentBundle,
+                            resourceBundleRegistry.getLocatorPathsIndex(),
+                            BACKGROUND_LOAD.get());
+                    resourceBundleRegistry.registerResourceBundle(
+                            key, resourceBundle, toKey(parentBundle), isPreloaded(key));
+                    updateListenerPaths();
+
+                    final Set<String> languageRoots = resourceBundle.getLanguageRootPaths();
+
+                    log.debug("Key {} - added service registration and language roots {}", key, languageRoots);
+                    log.info(
+                            "Currently loaded dictionaries across all locales: {}",
+                            resourceBundleRegistry.getLanguageRootPaths());
+
+                } catch (final LoginException le) {
+                    throw (MissingResourceException) new MissingResourceException(
+                                    "Unable to create service resource resolver", key.baseName, key.locale.toString())
+                            .initCause(le);
+                } finally {
+                    if (localResolver != null) {
+                        localResolver.close();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+        } finally {
+            loadingGuard.release();
+        }
+        return resourceBundle;
+    }
 
-                        final Set<String> languageRoots = resourceBundle.getLanguageRootPaths();
-                        this.languageRootPaths.addAll(languageRoots);
+    /**
+     * Starts loading the resource bundle with the given key on the worker
+     * threads unless it is already being loaded, all callers share the load.
+     *
+     * @return the running load or <code>null</code> if deactivated
+     */
+    private FutureTask<JcrResourceBundle> startLoad(final Key key) {
+        FutureTask<JcrResourceBundle> load = pendingLoads.get(key);
+        if (load == null) {
+            final FutureTask<JcrResourceBundle> newLoad = new FutureTask<>(() -> {
+                try {
+                    return loadResourceBundle(null, key, false);
+                } finally {
+                    pendingLoads.remove(key);
+                }
+            });
+            load = pendingLoads.putIfAbsent(key, newLoad);
+            if (load == null) {
+                load = newLoad;
+                try {
+                    workerExecutor.execute(load);
+                } catch (final RejectedExecutionException e) {
+                    pendingLoads.remove(key, load);
+                    return null;
+                }
+            }
+        }
+        return load;
+    }
+
+    /**
+     * Starts loading the resource bundle with the given base name and locale in
+     * the background if it is not cached yet. A request asking for the bundle
+     * later on waits for the running load instead of loading it again.
+     */
+    void prefetch(final String baseName, final Locale locale) {
+        final Key key = getServedKey(baseName, locale);
+        if (!resourceBundleRegistry.isClosed() && resourceBundleRegistry.getResourceBundle(key) == null) {
+            startLoad(key);
+        }
+    }
+
+    /**
+     * Loads the resource bundle with the given key in the background and waits
+     * for it up to the configured load timeout. If the load takes longer, the
+     * nearest loaded ancestor bundle is returned instead, while the load goes on
+     * and registers the bundle for later requests.
+     */
+    private ResourceBundle loadResourceBundleWithTimeout(final Key key) {
+        final FutureTask<JcrResourceBundle> load = startLoad(key);
+        if (load == null) {
+            // deactivated in the meantime
+            return loadResourceBundle(null, key, false);
+        }
+        try {
+            return load.get(this.loadTimeout, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            final ResourceBundle fallback = getLoadedAncestor(key);
+            log.debug("getResourceBundleInternal({}): load timed out, using {}", key, fallback);
+            statistics.loadFallback();
+            return fallback;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getLoadedAncestor(key);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw (MissingResourceException)
+                    new MissingResourceException("Unable to load resource bundle", key.baseName, key.locale.toString())
+                            .initCause(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the loaded bundle of the nearest parent locale of the given key,
+     * the root resource bundle if none is loaded.
+     */
+    private ResourceBundle getLoadedAncestor(final Key key) {
+        for (Locale parentLocale = getParentLocale(key.locale);
+                parentLocale != null;
+                parentLocale = getParentLocale(parentLocale)) {
+            final JcrResourceBundle ancestor =
+                    resourceBundleRegistry.getResourceBundle(new Key(key.baseName, parentLocale));
+            if (ancestor != null) {
+                return ancestor;
+            }
+        }
+        return getRootResourceBundle();
+    }
+
+    /**
+     * Returns the resource bundle to be used as parent of the bundle with the
+     * given key, which is either the bundle of the parent locale or the root
+     * resource bundle.
+     *
+     * @throws MissingResourceException If the <code>ResourceResolver</code>
+     *             is not available to access the resources.
+     */
+    private ResourceBundle getParentResourceBundle(final ResourceResolver resolver, final Key key) {
+        final Locale parentLocale = getParentLocale(key.locale);
+        if (parentLocale != null) {
+            return getResourceBundleInternal(resolver, key.baseName, parentLocale);
+        }
+        return getRootResourceBundle();
+    }
 
-                        log.debug("Key {} - added service registration and language roots {}", key, languageRoots);
-                        log.info("Currently loaded dictionaries across all locales: {}", languageRootPaths);
+    /**
+     * Creates the resource bundle with the given key once admitted by the
+     * limit of concurrent loads. The parent bundle must have been loaded
+     * before, so that no permit is held while waiting for another load.
+     *
+     * @param background whether no request waits for the bundle
+     */
+    private JcrResourceBundle readResourceBundle(
+            final ResourceResolver resolver,
+            final Key key,
+            final ResourceBundle parentBundle,
+            final LocatorPathsIndex locatorPathsIndex,
+            final boolean background)
+            throws InterruptedException {
+        final LoadAdmission admission = this.loadAdmission;
+        admission.acquire(LoadAdmission.priority(defaultLocale.equals(key.locale), background));
+        try {
+            final long start = System.currentTimeMillis();
+            final JcrResourceBundle resourceBundle =
+                    createResourceBundle(resolver, key.baseName, key.locale, parentBundle, locatorPathsIndex);
+            statistics.loaded(System.currentTimeMillis() - start);
+            return resourceBundle;
+        } finally {
+            admission.release();
+        }
+    }
 
-                    } catch (final LoginException le) {
-                        throw (MissingResourceException) new MissingResourceException(
-                                        "Unable to create service resource resolver", baseName, locale.toString())
-                                .initCause(le);
-                    } finally {
-                        if (localResolver != null) {
-                            localResolver.close();
-                        }
-                    }
-                }
-            } catch (InterruptedException e) {
-                Thread.interrupted();
-            } finally {
-                loadingGuard.release();
-            }
+    /**
+     * Runs the given loads with the priority of background work.
+     */
+    private static void runInBackground(final Runnable loads) {
+        final boolean previous = BACKGROUND_LOAD.get();
+        BACKGROUND_LOAD.set(true);
+        try {
+            loads.run();
+        } finally {
+            BACKGROUND_LOAD.set(previous);
         }
-        log.trace("getResourceBundleInternal({}) ==> {}", key, resourceBundle);
-        return resourceBundle;
     }
 
     /**
@@ -537,21 +1591,32 @@ public class JcrResourceBundleProvider
      *             is not available to access the resources.
      */
     private JcrResourceBundle createResourceBundle(
-            final ResourceResolver resolver, final String baseName, final Locale locale) {
+            final ResourceResolver resolver,
+            final String baseName,
+            final Locale locale,
+            final ResourceBundle parentBundle,
+            final LocatorPathsIndex locatorPathsIndex) {
         final JcrResourceBundle bundle =
-                new JcrResourceBundle(locale, baseName, resolver, locatorPaths, this.pathFilter);
+                new JcrResourceBundle(locale, baseName, resolver, locatorPaths, this.pathFilter, locatorPathsIndex);
 
-        // set parent resource bundle
-        Locale parentLocale = getParentLocale(locale);
-        if (parentLocale != null) {
-            bundle.setParent(getResourceBundleInternal(resolver, baseName, parentLocale));
+        // set parent resource bundle, skipping aliases as they don't provide any messages
+        if (parentBundle instanceof JcrResourceBundle && ((JcrResourceBundle) parentBundle).isAlias()) {
+            bundle.setParent(((JcrResourceBundle) parentBundle).getParent());
         } else {
-            bundle.setParent(getRootResourceBundle());
+            bundle.setParent(parentBundle);
         }
 
         return bundle;
     }
 
+    private static Key toKey(final ResourceBundle resourceBundle) {
+        if (resourceBundle instanceof JcrResourceBundle) {
+            final JcrResourceBundle jcrResourceBundle = (JcrResourceBundle) resourceBundle;
+            return new Key(jcrResourceBundle.getBaseName(), jcrResourceBundle.getLocale());
+        }
+        return null;
+    }
+
     /**
      * Returns the parent locale of the given locale. The parent locale is the
      * locale of a locale is defined as follows:
@@ -608,6 +1673,190 @@ public class JcrResourceBundleProvider
         return null;
     }
 
+    /**
+     * Returns the given locale if there are dictionaries for it and the given
+     * base name in the repository. Otherwise the nearest parent locale (see
+     * {@link #getParentLocale(Locale)}) having dictionaries is returned, or the
+     * last locale in the chain of parent locales if none of them has dictionaries.
+     * <p>
+     * Never blocks: as long as the supported locales have not been collected yet,
+     * the given locale is returned.
+     */
+    private Locale getSupportedLocale(final String baseName, final Locale locale) {
+        final SupportedLocales supported = this.supportedLocales;
+        if (supported == null) {
+            refreshSupportedLocales();
+            return locale;
+        }
+        Locale candidate = locale;
+        while (!supported.isSupported(baseName, candidate)) {
+            final Locale parentLocale = getParentLocale(candidate);
+            if (parentLocale == null) {
+                break;
+            }
+            candidate = parentLocale;
+        }
+        return candidate;
+    }
+
+    /**
+     * Collects the supported locales again on the reload executor, unless this
+     * has already been requested. Nothing is done if requests are not limited
+     * to the supported locales.
+     */
+    private void refreshSupportedLocales() {
+        final ReloadExecutor executor = this.reloadExecutor;
+        if (this.supportedLocalesOnly && executor != null && supportedLocalesPending.compareAndSet(false, true)) {
+            executor.execute(this::loadSupportedLocales);
+        }
+    }
+
+    /**
+     * Collects the languages of all dictionaries, either found by the
+     * {@link JcrResourceBundle#QUERY_LANGUAGE_ROOTS query} or below the
+     * registered locator paths.
+     */
+    private void loadSupportedLocales() {
+        supportedLocalesPending.set(false);
+        if (resourceBundleRegistry.isClosed()) {
+            return;
+        }
+        try (final ResourceResolver resolver = createResourceResolver()) {
+            final SupportedLocales supported = new SupportedLocales();
+            final Iterator<Map<String, Object>> roots =
+                    resolver.queryResources(JcrResourceBundle.QUERY_LANGUAGE_ROOTS, "xpath");
+            while (roots.hasNext()) {
+                final Map<String, Object> root = roots.next();
+                if (root.containsKey(PROP_LANGUAGE)
+                        && root.containsKey(PROP_PATH)
+                        && this.pathFilter.includePath(root.get(PROP_PATH).toString())) {
+                    supported.add(root.get(PROP_LANGUAGE).toString(), toBaseNames(root.get(PROP_BASENAME)));
+                }
+            }
+
+            final LocatorPathsIndex locatorPathsIndex = resourceBundleRegistry.getLocatorPathsIndex();
+            for (final LocatorPaths locator : locatorPaths) {
+                if (this.pathFilter.includePath(locator.getPath())) {
+                    for (final LocatorPathsIndex.LanguageRoot root :
+                            locatorPathsIndex.getLanguageRoots(resolver, locator)) {
+                        supported.add(root.getLanguage(), root.getBaseNames());
+                    }
+                }
+            }
+            log.debug("Found dictionaries for {}", supported);
+            this.supportedLocales = supported;
+        } catch (final LoginException le) {
+            log.error("Unable to create service user resource resolver.", le);
+        }
+    }
+
+    /**
+     * Returns the base names of a dictionary found by a query, which is either
+     * a single or a multi value property.
+     */
+    private static String[] toBaseNames(final Object value) {
+        if (value == null) {
+            return new String[0];
+        }
+        if (value instanceof Object[]) {
+            final Object[] values = (Object[]) value;
+            final String[] baseNames = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                baseNames[i] = String.valueOf(values[i]);
+            }
+            return baseNames;
+        }
+        return new String[] {value.toString()};
+    }
+
+    /**
+     * Returns the number of requests for locales without dictionaries which
+     * have been answered with the resource bundle of a parent locale.
+     */
+    long getRedirectedRequests() {
+        return statistics.getRedirectedRequests();
+    }
+
+    ResourceBundleStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the number of scheduled reload jobs which did not run yet.
+     */
+    int getPendingReloadJobs() {
+        return (reloadChangesPending.get() ? 1 : 0)
+                + (reloadExternalChangesPending.get() ? 1 : 0)
+                + (reloadAllPending.get() ? 1 : 0);
+    }
+
+    /**
+     * Returns the time of the first change not made visible by a reload yet, 0 if there is none.
+     */
+    long getChangesPendingSince() {
+        return changesPendingSince.get();
+    }
+
+    /**
+     * Returns the number of loads waiting because the maximum number of concurrent loads is reached.
+     */
+    int getQueuedLoads() {
+        return loadAdmission.getQueued();
+    }
+
+    /**
+     * Returns the number of reloads waiting for the reload executor.
+     */
+    int getReloadQueueDepth() {
+        return reloadExecutor.getQueueDepth();
+    }
+
+    /**
+     * Waits until the reloads queued so far have run.
+     *
+     * @return <code>false</code> if the timeout elapsed before
+     */
+    boolean awaitReloads(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return reloadExecutor.awaitIdle(timeout, unit);
+    }
+
+    int getLanguageRootPathsCount() {
+        return resourceBundleRegistry.getLanguageRootPaths().size();
+    }
+
+    /**
+     * Returns the recorder of missing keys or <code>null</code> if recording is disabled.
+     */
+    MissingKeyRecorder getMissingKeyRecorder() {
+        return missingKeyRecorder;
+    }
+
+    /**
+     * Returns whether the resource bundle served for the given base name and
+     * locale is cached, taking the redirect to a supported locale into account.
+     */
+    boolean isCached(final String baseName, final Locale locale) {
+        final ResourceBundleRegistry registry = this.resourceBundleRegistry;
+        return registry != null && registry.getResourceBundle(getServedKey(baseName, locale)) != null;
+    }
+
+    /**
+     * Returns the key of the resource bundle served for the given base name and
+     * locale, which is the one of the nearest supported locale if requests are
+     * limited to the supported locales.
+     */
+    private Key getServedKey(final String baseName, final Locale locale) {
+        final Key key = new Key(baseName, locale != null ? locale : defaultLocale);
+        if (!this.supportedLocalesOnly || resourceBundleRegistry.getResourceBundle(key) != null) {
+            return key;
+        }
+        return new Key(baseName, getSupportedLocale(baseName, key.locale));
+    }
+
+    Collection<JcrResourceBundle> getCachedResourceBundles() {
+        return resourceBundleRegistry.getResourceBundles();
+    }
+
     /**
      * Returns a ResourceBundle which is used as the root resource bundle, that
      * is the ultimate parent:
@@ -621,48 +1870,234 @@ public class JcrResourceBundleProvider
      */
     private ResourceBundle getRootResourceBundle() {
         if (rootResourceBundle == null) {
-            rootResourceBundle = new RootResourceBundle();
+            rootResourceBundle = new RootResourceBundle(missingKeyRecorder);
         }
         return rootResourceBundle;
     }
 
     void clearCache() {
-        languageRootPaths.clear();
+        refreshSupportedLocales();
+        final Map<Key, ResourceBundleRegistry.Entry> previous = snapshotForChangeListeners();
         resourceBundleRegistry.unregisterAll();
+        updateListenerPaths();
+        if (previous != null) {
+            notifyChangeListeners(resourceBundleRegistry.parentsFirst(previous.keySet(), previous), previous);
+        }
+    }
+
+    /**
+     * Registers this instance as <code>ResourceChangeListener</code> for the
+     * {@link #getListenerPaths() paths of interest}.
+     */
+    private void registerListener(final BundleContext context) {
+        synchronized (listenerLock) {
+            this.listenerPaths = getListenerPaths();
+            this.listenerRegistration =
+                    context.registerService(ResourceChangeListener.class, this, listenerProps(this.listenerPaths));
+        }
+    }
+
+    private void unregisterListener() {
+        synchronized (listenerLock) {
+            if (this.listenerRegistration != null) {
+                this.listenerRegistration.unregister();
+                this.listenerRegistration = null;
+            }
+        }
+    }
+
+    /**
+     * Updates the paths observed by this listener if they depend on the
+     * loaded language roots and the registered locator paths.
+     */
+    private void updateListenerPaths() {
+        if (this.dictionaryPaths == null) {
+            return;
+        }
+        synchronized (listenerLock) {
+            if (this.listenerRegistration == null) {
+                return;
+            }
+            final Set<String> paths = getListenerPaths();
+            if (!paths.equals(this.listenerPaths)) {
+                log.debug("Observing changes at {}", paths);
+                this.listenerPaths = paths;
+                this.listenerRegistration.setProperties(listenerProps(paths));
+            }
+        }
+    }
+
+    /**
+     * Returns the paths to observe: the configured dictionary paths together
+     * with the loaded language roots and the registered locator paths or, if
+     * no dictionary paths are configured, the included paths.
+     */
+    Set<String> getListenerPaths() {
+        final Set<String> paths = new TreeSet<>();
+        if (this.dictionaryPaths != null) {
+            paths.addAll(Arrays.asList(this.dictionaryPaths));
+            paths.addAll(resourceBundleRegistry.getLanguageRootPaths());
+            for (final LocatorPaths locator : locatorPaths) {
+                if (this.pathFilter.includePath(locator.getPath())) {
+                    paths.add(locator.getPath());
+                }
+            }
+        } else if (this.includedPaths != null && this.includedPaths.length > 0) {
+            paths.addAll(Arrays.asList(this.includedPaths));
+        } else {
+            paths.add("/");
+        }
+        return paths;
+    }
+
+    private static Dictionary<String, Object> listenerProps(final Set<String> paths) {
+        final Dictionary<String, Object> props = new Hashtable<>();
+        props.put(ResourceChangeListener.PATHS, paths.toArray(new String[0]));
+        props.put(ResourceChangeListener.CHANGES, new String[] {"ADDED", "REMOVED", "CHANGED"});
+        props.put(Constants.SERVICE_DESCRIPTION, "Apache Sling I18n Resource Bundle Change Listener");
+        props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        return props;
     }
 
+    /**
+     * Preloads the resource bundles in tiers: first the bundles of the language
+     * of the default locale, then those of the priority locales and finally all others. The
+     * {@link PreloadStatus} is updated after each tier.
+     */
     private void preloadBundles() {
-        if (this.preloadBundles && !resourceBundleRegistry.isClosed()) {
-            try (final ResourceResolver resolver = createResourceResolver()) {
-                final Iterator<Map<String, Object>> bundles =
-                        resolver.queryResources(JcrResourceBundle.QUERY_LANGUAGE_ROOTS, "xpath");
-                final Set<Key> usedKeys = new HashSet<>();
-                while (bundles.hasNext()) {
-                    final Map<String, Object> bundle = bundles.next();
-                    if (bundle.containsKey(PROP_LANGUAGE) && bundle.containsKey(PROP_PATH)) {
-                        final String path = bundle.get(PROP_PATH).toString();
-                        final String language = bundle.get(PROP_LANGUAGE).toString();
-                        if (this.pathFilter.includePath(path)) {
-                            final Locale locale = toLocale(language);
-                            final String baseName = bundle.containsKey(PROP_BASENAME)
-                                    ? bundle.get(PROP_BASENAME).toString()
-                                    : null;
-                            final Key key = new Key(baseName, locale);
-                            if (usedKeys.add(key)) {
-                                getResourceBundleInternal(resolver, baseName, locale);
-                            }
-                        } else {
-                            log.warn(
-                                    "Ignoring i18n bundle for language {} at {} because it is not included by the path filter",
-                                    language,
-                                    path);
-                        }
+        if (resourceBundleRegistry.isClosed()) {
+            return;
+        }
+        if (!this.preloadBundles) {
+            // nothing to preload, so all tiers are ready
+            preloadCompleted();
+            return;
+        }
+        try (final ResourceResolver resolver = createResourceResolver()) {
+            final Set<Key> usedKeys = collectPreloadKeys(resolver);
+
+            final Map<String, List<Key>> tiers = new LinkedHashMap<>();
+            tiers.put(PreloadStatus.TIER_DEFAULT, new ArrayList<>());
+            tiers.put(PreloadStatus.TIER_PRIORITY, new ArrayList<>());
+            tiers.put(PreloadStatus.TIER_ALL, new ArrayList<>());
+            for (final Key key : usedKeys) {
+                tiers.get(getPreloadTier(key)).add(key);
+            }
+            for (final Map.Entry<String, List<Key>> tier : tiers.entrySet()) {
+                preloadTier(resolver, tier.getKey(), tier.getValue());
+            }
+        } catch (final LoginException le) {
+            log.error("Unable to create service user resource resolver.", le);
+            // the bundles are loaded on demand, which must not keep the tiers from becoming ready
+            preloadCompleted();
+        }
+    }
+
+    /**
+     * Marks all preload tiers as completed.
+     */
+    private void preloadCompleted() {
+        preloadStatus.completed(PreloadStatus.TIER_DEFAULT);
+        preloadStatus.completed(PreloadStatus.TIER_PRIORITY);
+        preloadStatus.completed(PreloadStatus.TIER_ALL);
+    }
+
+    /**
+     * Returns the preload tier of the resource bundle with the given key. The
+     * default tier contains all bundles of the language of the default locale,
+     * e.g. <code>en_US</code> and <code>en_GB</code> for the default locale
+     * <code>en</code>.
+     */
+    String getPreloadTier(final Key key) {
+        if (defaultLocale.getLanguage().equals(key.locale.getLanguage())) {
+            return PreloadStatus.TIER_DEFAULT;
+        } else if (priorityLocales != null && priorityLocales.includes(key.baseName, key.locale)) {
+            return PreloadStatus.TIER_PRIORITY;
+        }
+        return PreloadStatus.TIER_ALL;
+    }
+
+    /**
+     * Returns the keys of all resource bundles to be preloaded.
+     */
+    private Set<Key> collectPreloadKeys(final ResourceResolver resolver) {
+        final Iterator<Map<String, Object>> bundles =
+                resolver.queryResources(JcrResourceBundle.QUERY_LANGUAGE_ROOTS, "xpath");
+        final Set<Key> usedKeys = new LinkedHashSet<>();
+        while (bundles.hasNext()) {
+            final Map<String, Object> bundle = bundles.next();
+            if (bundle.containsKey(PROP_LANGUAGE) && bundle.containsKey(PROP_PATH)) {
+                final String path = bundle.get(PROP_PATH).toString();
+                final String language = bundle.get(PROP_LANGUAGE).toString();
+                if (this.pathFilter.includePath(path)) {
+                    final Locale locale = toLocale(language);
+                    final String baseName = bundle.containsKey(PROP_BASENAME)
+                            ? bundle.get(PROP_BASENAME).toString()
+                            : null;
+                    final Key key = new Key(baseName, locale);
+                    if (!this.preloadFilter.includes(baseName, locale)) {
+                        log.debug("Not preloading resource bundle {} excluded by the preload patterns", key);
+                    } else {
+                        usedKeys.add(key);
                     }
+                } else {
+                    log.warn(
+                            "Ignoring i18n bundle for language {} at {} because it is not included by the path filter",
+                            language,
+                            path);
                 }
-            } catch (final LoginException le) {
-                log.error("Unable to create service user resource resolver.", le);
             }
         }
+        return usedKeys;
+    }
+
+    private void preloadTier(final ResourceResolver resolver, final String tier, final List<Key> keys) {
+        log.debug("Preloading {} resource bundles of tier {}", keys.size(), tier);
+        for (final Key key : keys) {
+            if (resourceBundleRegistry.isClosed()) {
+                return;
+            }
+            getResourceBundleInternal(resolver, key.baseName, key.locale);
+        }
+        log.info("Preloaded {} resource bundles of tier {}", keys.size(), tier);
+        preloadStatus.completed(tier);
+    }
+
+    /**
+     * Loads the most frequently requested resource bundles in the background,
+     * hottest first, unless all bundles are preloaded anyway.
+     */
+    private void warmupHotKeys() {
+        final AccessProfile profile = this.accessProfile;
+        if (profile == null || this.preloadBundles || resourceBundleRegistry.isClosed()) {
+            return;
+        }
+        final List<Key> hotKeys = profile.getHottest(this.warmupHotKeys);
+        log.info("Warming up {} most frequently requested resource bundles", hotKeys.size());
+        for (final Key key : hotKeys) {
+            try {
+                workerExecutor.execute(() -> runInBackground(() -> {
+                    if (!resourceBundleRegistry.isClosed()) {
+                        try {
+                            getResourceBundleInternal(null, key.baseName, key.locale);
+                        } catch (final MissingResourceException e) {
+                            log.warn("Unable to warm up resource bundle " + key, e);
+                        }
+                    }
+                }));
+            } catch (final RejectedExecutionException e) {
+                // deactivated in the meantime
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the bundle with the given key is preloaded
+     * and eagerly reloaded.
+     */
+    private boolean isPreloaded(final Key key) {
+        return this.preloadBundles && this.preloadFilter.includes(key.baseName, key.locale);
     }
 
     /**
@@ -889,61 +2324,203 @@ public class JcrResourceBundleProvider
      * Registry of the loaded <code>resource bundles</code> and the associated <code>service registrations</code>
      * The <code>ResourceBundleRegistry</code> takes care of the registration/deregistration of the resource bundles as OSGi services.
      * It stores the references to the registered resource bundles and to the associated service registrations.
+     * <p>
+     * The bundles are kept in a {@link Generation} together with the language root paths they have been
+     * loaded from. A complete generation may be built off to the side and {@link #publish(Generation) published}
+     * at once.
      */
     private static class ResourceBundleRegistry implements AutoCloseable {
         private final Logger log = LoggerFactory.getLogger(getClass());
         private final BundleContext bundleContext;
         final AtomicBoolean closed = new AtomicBoolean(false);
-        private final AtomicReference<ConcurrentHashMap<Key, Entry>> registrations;
+        private final AtomicReference<Generation> generation;
 
         private static class Entry {
             final JcrResourceBundle resourceBundle;
+            final Key parentKey;
+            final boolean preloaded;
             final ServiceRegistration<ResourceBundle> serviceRegistration;
 
-            Entry(JcrResourceBundle resourceBundle, ServiceRegistration<ResourceBundle> serviceRegistration) {
+            Entry(
+                    JcrResourceBundle resourceBundle,
+                    Key parentKey,
+                    boolean preloaded,
+                    ServiceRegistration<ResourceBundle> serviceRegistration) {
                 this.resourceBundle = resourceBundle;
+                this.parentKey = parentKey;
+                this.preloaded = preloaded;
                 this.serviceRegistration = serviceRegistration;
             }
+
+            void unregister() {
+                // aliases are not registered as a service
+                if (serviceRegistration != null) {
+                    serviceRegistration.unregister();
+                }
+            }
         }
 
         ResourceBundleRegistry(BundleContext bundleContext) {
             this.bundleContext = bundleContext;
-            this.registrations = new AtomicReference<>(new ConcurrentHashMap<>());
+            this.generation = new AtomicReference<>(new Generation());
         }
 
         JcrResourceBundle getResourceBundle(Key key) {
-            Entry entry = registrations.get().get(key);
+            Entry entry = generation.get().entries.get(key);
             return entry != null ? entry.resourceBundle : null;
         }
 
         Collection<JcrResourceBundle> getResourceBundles() {
-            return registrations.get().values().stream()
+            return generation.get().entries.values().stream()
                     .map(e -> e.resourceBundle)
                     .collect(Collectors.toList());
         }
 
-        void registerResourceBundle(Key key, JcrResourceBundle resourceBundle) {
+        /**
+         * Returns a copy of the entries of the current generation
+         */
+        Map<Key, Entry> getEntries() {
+            return new HashMap<>(generation.get().entries);
+        }
+
+        /**
+         * Returns the key of the parent of the bundle with the given key, taken from
+         * the current generation or, for a dropped bundle, from the given previous entries.
+         */
+        Key getParentKey(Key key, Map<Key, Entry> previous) {
+            Entry entry = generation.get().entries.get(key);
+            if (entry == null) {
+                entry = previous.get(key);
+            }
+            return entry != null ? entry.parentKey : null;
+        }
+
+        /**
+         * Returns the given keys with every parent before its children, using the
+         * links of the current generation and, for dropped bundles, the previous entries.
+         */
+        List<Key> parentsFirst(Collection<Key> keys, Map<Key, Entry> previous) {
+            final Set<Key> ordered = new LinkedHashSet<>();
+            for (final Key key : keys) {
+                // collect the ancestors of the key which are part of the keys, closest first
+                final Deque<Key> path = new ArrayDeque<>();
+                for (Key current = key;
+                        current != null
+                                && keys.contains(current)
+                                && !ordered.contains(current)
+                                && !path.contains(current);
+                        current = getParentKey(current, previous)) {
+                    path.push(current);
+                }
+                while (!path.isEmpty()) {
+                    ordered.add(path.pop());
+                }
+            }
+            return new ArrayList<>(ordered);
+        }
+
+        Set<Key> getKeys() {
+            return new HashSet<>(generation.get().entries.keySet());
+        }
+
+        boolean isEmpty() {
+            return generation.get().entries.isEmpty();
+        }
+
+        /**
+         * Returns the paths from which the bundles of the current generation have been loaded
+         */
+        Set<String> getLanguageRootPaths() {
+            return generation.get().languageRootPaths;
+        }
+
+        /**
+         * Returns the index of the language roots below the locator paths of the current generation
+         */
+        LocatorPathsIndex getLocatorPathsIndex() {
+            return generation.get().locatorPathsIndex;
+        }
+
+        /**
+         * Returns the given keys together with the keys of all their registered
+         * descendants, each key once and every parent before its children.
+         */
+        List<Key> getDependencyClosure(Collection<Key> keys) {
+            final Generation current = generation.get();
+            final Set<Key> closure = new LinkedHashSet<>();
+            final Deque<Key> pending = new ArrayDeque<>(keys);
+            while (!pending.isEmpty()) {
+                final Key key = pending.poll();
+                if (closure.add(key)) {
+                    pending.addAll(current.getChildren(key));
+                }
+            }
+
+            // every bundle has at most one parent, so start with the keys whose parent is not
+            // part of the closure and add the children after their parent
+            final Set<Key> ordered = new LinkedHashSet<>();
+            final Deque<Key> ready = new ArrayDeque<>();
+            for (final Key key : closure) {
+                final Entry entry = current.entries.get(key);
+                if (entry == null || entry.parentKey == null || !closure.contains(entry.parentKey)) {
+                    ready.add(key);
+                }
+            }
+            while (!ready.isEmpty()) {
+                final Key key = ready.poll();
+                if (ordered.add(key)) {
+                    for (final Key child : current.getChildren(key)) {
+                        if (closure.contains(child)) {
+                            ready.add(child);
+                        }
+                    }
+                }
+            }
+            // keys whose links changed concurrently
+            ordered.addAll(closure);
+            return new ArrayList<>(ordered);
+        }
+
+        void registerResourceBundle(Key key, JcrResourceBundle resourceBundle, Key parentKey, boolean preloaded) {
             if (closed.get()) {
                 return;
             }
-            ServiceRegistration<ResourceBundle> serviceReg =
-                    bundleContext.registerService(ResourceBundle.class, resourceBundle, serviceProps(key));
-            Entry oldEntry = registrations.get().put(key, new Entry(resourceBundle, serviceReg));
+            final Entry newEntry = register(key, resourceBundle, parentKey, preloaded);
+            final Generation current;
+            final Entry oldEntry;
+            // not concurrently to publishing, which takes over the entries of the current generation
+            synchronized (this) {
+                current = generation.get();
+                oldEntry = current.entries.put(key, newEntry);
+                current.languageRootPaths.addAll(resourceBundle.getLanguageRootPaths());
+                if (oldEntry != null) {
+                    current.unlink(key, oldEntry.parentKey);
+                }
+                current.link(key, parentKey);
+            }
             if (oldEntry != null) {
-                oldEntry.serviceRegistration.unregister();
+                oldEntry.unregister();
             }
             log.debug(
                     "[ResourceBundleRegistry.updateResourceBundle] Registry updated - Nr of entries: {} - Keys: {}",
-                    registrations.get().size(),
-                    registrations.get().keySet());
+                    current.entries.size(),
+                    current.entries.keySet());
+        }
+
+        private Entry register(Key key, JcrResourceBundle resourceBundle, Key parentKey, boolean preloaded) {
+            ServiceRegistration<ResourceBundle> serviceReg = resourceBundle.isAlias()
+                    ? null
+                    : bundleContext.registerService(ResourceBundle.class, resourceBundle, serviceProps(key, preloaded));
+            return new Entry(resourceBundle, parentKey, preloaded, serviceReg);
         }
 
-        private static Dictionary<String, Object> serviceProps(Key key) {
+        private static Dictionary<String, Object> serviceProps(Key key, boolean preloaded) {
             Dictionary<String, Object> serviceProps = new Hashtable<>();
             if (key.baseName != null) {
                 serviceProps.put("baseName", key.baseName);
             }
             serviceProps.put("locale", key.locale.toString());
+            serviceProps.put("preloaded", preloaded);
             return serviceProps;
         }
 
@@ -951,9 +2528,16 @@ public class JcrResourceBundleProvider
             if (closed.get()) {
                 return;
             }
-            Entry oldEntry = registrations.get().remove(key);
+            final Entry oldEntry;
+            synchronized (this) {
+                final Generation current = generation.get();
+                oldEntry = current.entries.remove(key);
+                if (oldEntry != null) {
+                    current.unlink(key, oldEntry.parentKey);
+                }
+            }
             if (oldEntry != null) {
-                oldEntry.serviceRegistration.unregister();
+                oldEntry.unregister();
             } else {
                 log.warn(
                         "[ResourceBundleRegistry.unregisterResourceBundle] Could not find resource bundle service for {}",
@@ -961,6 +2545,56 @@ public class JcrResourceBundleProvider
             }
         }
 
+        /**
+         * Registers the services for all bundles of a generation built off to the side and
+         * replaces the current generation with it. The services of the previous generation
+         * are unregistered only afterwards, so consumers never observe a gap. Bundles of the
+         * current generation which are not part of the new one, i.e. bundles loaded on demand
+         * while the new generation was built, are taken over.
+         *
+         * @return the keys of the bundles taken over whose parent bundle has been replaced,
+         *      they must be reloaded to refer to the new parent bundle
+         */
+        Set<Key> publish(Generation next) {
+            if (closed.get()) {
+                return Collections.emptySet();
+            }
+            final Generation published = new Generation(next.locatorPathsIndex);
+            for (Map.Entry<Key, Entry> e : next.entries.entrySet()) {
+                final Entry entry = e.getValue();
+                published.entries.put(
+                        e.getKey(), register(e.getKey(), entry.resourceBundle, entry.parentKey, entry.preloaded));
+                published.link(e.getKey(), entry.parentKey);
+            }
+            published.languageRootPaths.addAll(next.languageRootPaths);
+            final Generation previous;
+            final Set<Key> staleParents = new LinkedHashSet<>();
+            synchronized (this) {
+                previous = generation.get();
+                for (Map.Entry<Key, Entry> e : previous.entries.entrySet()) {
+                    final Entry entry = e.getValue();
+                    if (published.entries.putIfAbsent(e.getKey(), entry) == null) {
+                        published.link(e.getKey(), entry.parentKey);
+                        published.languageRootPaths.addAll(entry.resourceBundle.getLanguageRootPaths());
+                        if (entry.parentKey != null && next.entries.containsKey(entry.parentKey)) {
+                            staleParents.add(e.getKey());
+                        }
+                    }
+                }
+                generation.set(published);
+            }
+            for (Map.Entry<Key, Entry> e : previous.entries.entrySet()) {
+                if (published.entries.get(e.getKey()) != e.getValue()) {
+                    e.getValue().unregister();
+                }
+            }
+            log.debug(
+                    "[ResourceBundleRegistry.publish] Generation published - Nr of entries: {} - Keys: {}",
+                    published.entries.size(),
+                    published.entries.keySet());
+            return staleParents;
+        }
+
         void unregisterAll() {
             if (closed.get()) {
                 return;
@@ -971,16 +2605,19 @@ public class JcrResourceBundleProvider
         private void unregisterAllInternal() {
             log.debug(
                     "[ResourceBundleRegistry.clearInternal] Before - Nr of Keys: {} - Keys: {}",
-                    registrations.get().size(),
-                    registrations.get().keySet());
-            ConcurrentHashMap<Key, Entry> oldServiceReg = registrations.getAndSet(new ConcurrentHashMap<>());
-            for (Entry entry : oldServiceReg.values()) {
-                entry.serviceRegistration.unregister();
+                    generation.get().entries.size(),
+                    generation.get().entries.keySet());
+            final Generation oldGeneration;
+            synchronized (this) {
+                oldGeneration = generation.getAndSet(new Generation());
+            }
+            for (Entry entry : oldGeneration.entries.values()) {
+                entry.unregister();
             }
             log.debug(
                     "[ResourceBundleRegistry.clearInternal] After - Nr of Keys: {} - Keys: {}",
-                    registrations.get().size(),
-                    registrations.get().keySet());
+                    generation.get().entries.size(),
+                    generation.get().entries.keySet());
         }
 
         boolean isClosed() {
@@ -994,4 +2631,67 @@ public class JcrResourceBundleProvider
             }
         }
     }
+
+    /**
+     * The resource bundles loaded at one point in time together with the paths
+     * from which they have been loaded.
+     */
+    private static final class Generation {
+
+        final ConcurrentHashMap<Key, ResourceBundleRegistry.Entry> entries = new ConcurrentHashMap<>();
+
+        /**
+         * paths from which JCR resource bundles have been loaded
+         */
+        final Set<String> languageRootPaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        /**
+         * language roots below the locator paths, shared by all bundles of this generation
+         */
+        final LocatorPathsIndex locatorPathsIndex;
+
+        /**
+         * keys of the bundles by the key of their parent bundle
+         */
+        final ConcurrentHashMap<Key, Set<Key>> children = new ConcurrentHashMap<>();
+
+        Generation() {
+            this(new LocatorPathsIndex());
+        }
+
+        Generation(final LocatorPathsIndex locatorPathsIndex) {
+            this.locatorPathsIndex = locatorPathsIndex;
+        }
+
+        void link(final Key key, final Key parentKey) {
+            if (parentKey != null) {
+                children.computeIfAbsent(parentKey, k -> ConcurrentHashMap.newKeySet())
+                        .add(key);
+            }
+        }
+
+        void unlink(final Key key, final Key parentKey) {
+            if (parentKey != null) {
+                children.computeIfPresent(parentKey, (k, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+
+        Set<Key> getChildren(final Key key) {
+            final Set<Key> keys = children.get(key);
+            return keys != null ? keys : Collections.emptySet();
+        }
+
+        /**
+         * Adds a bundle loaded off to the side, its service is registered once the
+         * generation is {@link ResourceBundleRegistry#publish(Generation) published}.
+         */
+        void add(Key key, JcrResourceBundle resourceBundle, Key parentKey, boolean preloaded) {
+            entries.put(key, new ResourceBundleRegistry.Entry(resourceBundle, parentKey, preloaded, null));
+            link(key, parentKey);
+            languageRootPaths.addAll(resourceBundle.getLanguageRootPaths());
+        }
+    }
 }
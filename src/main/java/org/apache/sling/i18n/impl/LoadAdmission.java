@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * The <code>LoadAdmission</code> limits the number of resource bundles read
+ * from the repository at the same time, so that a burst of cache misses does
+ * not run all its queries in parallel.
+ * <p>
+ * Loads exceeding the limit wait in a queue ordered by priority and, within
+ * the same priority, by arrival. Loads of the default locale come before
+ * others and loads a request waits for come before background loads.
+ * <p>
+ * A permit must only be held while reading the dictionaries of a single
+ * bundle, never while waiting for another load, as the permits are not
+ * reentrant.
+ */
+class LoadAdmission {
+
+    /**
+     * Returns the priority of a load, lower values are admitted first.
+     *
+     * @param defaultLocale whether the bundle is one of the default locale
+     * @param background whether no request waits for the load
+     */
+    static int priority(final boolean defaultLocale, final boolean background) {
+        return (background ? 2 : 0) + (defaultLocale ? 0 : 1);
+    }
+
+    private static final class Waiter {
+        private final int priority;
+        private final long sequence;
+        private boolean admitted;
+
+        Waiter(final int priority, final long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    private final int limit;
+
+    private final ResourceBundleStatistics statistics;
+
+    // guarded by this
+
+    private final PriorityQueue<Waiter> waiters =
+            new PriorityQueue<>(Comparator.<Waiter>comparingInt(w -> w.priority).thenComparingLong(w -> w.sequence));
+
+    private int active;
+
+    private long sequence;
+
+    /**
+     * @param limit the maximum number of concurrent loads, 0 or less for no limit
+     * @param statistics receives the time the loads waited for admission
+     */
+    LoadAdmission(final int limit, final ResourceBundleStatistics statistics) {
+        this.limit = limit;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Waits until the load may start. Every successful call must be followed
+     * by a call to {@link #release()}.
+     *
+     * @param priority the priority of the load, see {@link #priority(boolean, boolean)}
+     * @throws InterruptedException if interrupted while waiting, no permit is held then
+     */
+    void acquire(final int priority) throws InterruptedException {
+        if (limit <= 0) {
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        synchronized (this) {
+            if (active < limit && waiters.isEmpty()) {
+                active++;
+                return;
+            }
+            final Waiter waiter = new Waiter(priority, sequence++);
+            waiters.add(waiter);
+            try {
+                while (!waiter.admitted) {
+                    wait();
+                }
+            } catch (final InterruptedException e) {
+                if (waiter.admitted) {
+                    // admitted concurrently, pass the permit on
+                    releaseAdmitted();
+                } else {
+                    waiters.remove(waiter);
+                }
+                throw e;
+            }
+        }
+        statistics.loadWaited(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Ends a load started by {@link #acquire(int)} and admits the next waiting load.
+     */
+    void release() {
+        if (limit <= 0) {
+            return;
+        }
+        synchronized (this) {
+            releaseAdmitted();
+        }
+    }
+
+    /**
+     * Returns the number of loads waiting for admission
+     */
+    synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private void releaseAdmitted() {
+        active--;
+        final Waiter next = waiters.poll();
+        if (next != null) {
+            next.admitted = true;
+            active++;
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The <code>LoadProfile</code> records where the time was spent while loading
+ * a {@link JcrResourceBundle}: finding the language roots by query and by
+ * traversing the locator paths, and loading each of the dictionaries.
+ * <p>
+ * A profile is filled while the bundle is created and never changes afterwards.
+ */
+class LoadProfile {
+
+    /** strategy of dictionaries loaded from a JSON file, the size is given in bytes */
+    static final String STRATEGY_JSON = "json";
+
+    /** strategy of dictionaries loaded from a resource tree, the size is given in resources */
+    static final String STRATEGY_MESSAGE = "sling:Message";
+
+    private long queryNanos;
+
+    private long traversalNanos;
+
+    private final List<Dictionary> dictionaries = new ArrayList<>();
+
+    void setQueryNanos(final long queryNanos) {
+        this.queryNanos = queryNanos;
+    }
+
+    void setTraversalNanos(final long traversalNanos) {
+        this.traversalNanos = traversalNanos;
+    }
+
+    void addDictionary(final Dictionary dictionary) {
+        this.dictionaries.add(dictionary);
+    }
+
+    /**
+     * Returns the time spent in the {@link JcrResourceBundle#QUERY_LANGUAGE_ROOTS query}.
+     */
+    long getQueryNanos() {
+        return queryNanos;
+    }
+
+    /**
+     * Returns the time spent traversing the locator paths.
+     */
+    long getTraversalNanos() {
+        return traversalNanos;
+    }
+
+    List<Dictionary> getDictionaries() {
+        return Collections.unmodifiableList(dictionaries);
+    }
+
+    /**
+     * Returns the total time spent finding and loading the dictionaries.
+     */
+    long getTotalNanos() {
+        long total = queryNanos + traversalNanos;
+        for (final Dictionary dictionary : dictionaries) {
+            total += dictionary.getElapsedNanos();
+        }
+        return total;
+    }
+
+    /**
+     * The profile of loading a single dictionary below a language root.
+     */
+    static final class Dictionary {
+
+        private final String path;
+
+        private final String strategy;
+
+        private final long size;
+
+        private final int entries;
+
+        private final long elapsedNanos;
+
+        private final int overriddenKeys;
+
+        Dictionary(
+                final String path,
+                final String strategy,
+                final long size,
+                final int entries,
+                final long elapsedNanos,
+                final int overriddenKeys) {
+            this.path = path;
+            this.strategy = strategy;
+            this.size = size;
+            this.entries = entries;
+            this.elapsedNanos = elapsedNanos;
+            this.overriddenKeys = overriddenKeys;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns either {@link LoadProfile#STRATEGY_JSON} or {@link LoadProfile#STRATEGY_MESSAGE}.
+         */
+        String getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Returns the number of bytes read for JSON dictionaries or the number
+         * of resources traversed for <code>sling:Message</code> dictionaries.
+         */
+        long getSize() {
+            return size;
+        }
+
+        int getEntries() {
+            return entries;
+        }
+
+        long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the number of entries of this dictionary which are
+         * overridden by a dictionary with higher precedence in the search path.
+         */
+        int getOverriddenKeys() {
+            return overriddenKeys;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.resource.observation.ResourceChange;
+
+/**
+ * Index of the language roots found below the registered locator paths.
+ * Each locator path is traversed once, on first use, recording every
+ * resource having a <code>jcr:language</code> property together with its
+ * language and basenames. All resource bundles loaded afterwards are matched
+ * against the recorded language roots instead of traversing again.
+ * <p>
+ * Changes below a locator path which may add, remove or modify a language
+ * root drop the recorded result of that locator path, so it is traversed
+ * again on next use. Traversals run outside of the index, so the language
+ * roots of other locator paths can be read and dropped meanwhile.
+ */
+class LocatorPathsIndex {
+
+    /**
+     * A resource having a <code>jcr:language</code> property below a locator path
+     */
+    static final class LanguageRoot {
+        private final String path;
+        private final String language;
+        private final String[] baseNames;
+
+        LanguageRoot(final String path, final String language, final String[] baseNames) {
+            this.path = path;
+            this.language = language;
+            this.baseNames = baseNames;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getLanguage() {
+            return language;
+        }
+
+        String[] getBaseNames() {
+            return baseNames;
+        }
+    }
+
+    private final Map<LocatorPaths, List<LanguageRoot>> languageRoots = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the drops of recorded language roots, so that the result of a
+     * traversal which might have missed a change is not recorded.
+     */
+    private final AtomicLong drops = new AtomicLong();
+
+    /**
+     * Returns the language roots below the given locator path in traversal
+     * order, traversing the locator path if it has not been indexed yet.
+     *
+     * @param resolver the resolver used for the traversal
+     * @param locator the locator path
+     */
+    List<LanguageRoot> getLanguageRoots(final ResourceResolver resolver, final LocatorPaths locator) {
+        final List<LanguageRoot> recorded = languageRoots.get(locator);
+        if (recorded != null) {
+            return recorded;
+        }
+        final long dropsBefore = drops.get();
+        final List<LanguageRoot> roots = traverse(resolver, locator);
+        final List<LanguageRoot> previous = languageRoots.putIfAbsent(locator, roots);
+        if (previous != null) {
+            // recorded by a concurrent traversal
+            return previous;
+        }
+        if (drops.get() != dropsBefore) {
+            // dropped during the traversal, which might not contain the change yet
+            languageRoots.remove(locator, roots);
+        }
+        return roots;
+    }
+
+    private static List<LanguageRoot> traverse(final ResourceResolver resolver, final LocatorPaths locator) {
+        final Resource parentResource = resolver.getResource(locator.getPath());
+        if (parentResource == null) {
+            return Collections.emptyList();
+        }
+        final List<LanguageRoot> roots = new ArrayList<>();
+        final LocatorPathsVisitor visitor = new LocatorPathsVisitor(res -> {
+            final LanguageRoot root = toLanguageRoot(res);
+            if (root != null) {
+                roots.add(root);
+            }
+        });
+        visitor.accept(parentResource, locator.getTraverseDepth());
+        return Collections.unmodifiableList(roots);
+    }
+
+    private static LanguageRoot toLanguageRoot(final Resource resource) {
+        final ValueMap properties = resource.adaptTo(ValueMap.class);
+        if (properties != null) {
+            final String language = properties.get(JcrResourceBundle.PROP_LANGUAGE, String.class);
+            if (language != null && language.length() > 0) {
+                // basename might be a multivalue (see https://issues.apache.org/jira/browse/SLING-4547)
+                return new LanguageRoot(
+                        resource.getPath(), language, properties.get(JcrResourceBundle.PROP_BASENAME, new String[] {}));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops the recorded language roots of the given locator paths.
+     *
+     * @param locators the locator paths
+     */
+    void removeAll(final Collection<LocatorPaths> locators) {
+        drops.incrementAndGet();
+        languageRoots.keySet().removeAll(locators);
+    }
+
+    /**
+     * Returns <code>true</code> if the given path is an ancestor of, equal to
+     * or below an indexed locator path and might therefore affect the index.
+     *
+     * @param path the changed path
+     */
+    boolean covers(final String path) {
+        for (final LocatorPaths locator : languageRoots.keySet()) {
+            if (locator.getPath() == null) {
+                continue;
+            }
+            if (isAncestorOrSelf(path, locator.getPath()) || isAncestorOrSelf(locator.getPath(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the recorded language roots of all locator paths affected by the
+     * given change, as far as this can be decided from the change itself.
+     *
+     * @param change the change
+     * @return <code>false</code> if the change might have added a language root,
+     *         which can only be decided by reading the resource with
+     *         {@link #update(ResourceResolver, ResourceChange)}
+     */
+    boolean update(final ResourceChange change) {
+        boolean decided = true;
+        for (final Map.Entry<LocatorPaths, List<LanguageRoot>> entry : languageRoots.entrySet()) {
+            final Boolean affected = isAffected(change, entry.getKey(), entry.getValue());
+            if (affected == null) {
+                decided = false;
+            } else if (affected) {
+                drop(entry.getKey());
+            }
+        }
+        return decided;
+    }
+
+    /**
+     * Drops the recorded language roots of all locator paths below which the
+     * changed resource is a new language root.
+     *
+     * @param resolver the resolver used to read the changed resource
+     * @param change the change
+     */
+    void update(final ResourceResolver resolver, final ResourceChange change) {
+        final Resource resource = resolver.getResource(change.getPath());
+        if (resource != null && toLanguageRoot(resource) != null) {
+            for (final LocatorPaths locator : languageRoots.keySet()) {
+                if (isWithinDepth(change.getPath(), locator)) {
+                    drop(locator);
+                }
+            }
+        }
+    }
+
+    private void drop(final LocatorPaths locator) {
+        drops.incrementAndGet();
+        languageRoots.remove(locator);
+    }
+
+    /**
+     * Returns whether the given change affects the language roots of the given
+     * locator path or <code>null</code> if this cannot be decided without
+     * reading the changed resource.
+     */
+    private static Boolean isAffected(
+            final ResourceChange change, final LocatorPaths locator, final List<LanguageRoot> roots) {
+        final String path = change.getPath();
+        if (locator.getPath() == null) {
+            return false;
+        }
+        if (isAncestorOrSelf(path, locator.getPath())) {
+            // the locator path itself has been added, removed or changed
+            return true;
+        }
+        if (!isWithinDepth(path, locator)) {
+            return false;
+        }
+        for (final LanguageRoot root : roots) {
+            if (isAncestorOrSelf(path, root.getPath())) {
+                // a language root has been removed or changed
+                return true;
+            }
+        }
+        if (change.getType() == ResourceChange.ChangeType.REMOVED) {
+            return false;
+        }
+        // a new language root
+        return ResourceChanges.touches(change, JcrResourceBundle.PROP_LANGUAGE);
+    }
+
+    private static boolean isWithinDepth(final String path, final LocatorPaths locator) {
+        return locator.getPath() != null
+                && isAncestorOrSelf(locator.getPath(), path)
+                && depth(path) - depth(locator.getPath()) <= locator.getTraverseDepth();
+    }
+
+    private static boolean isAncestorOrSelf(final String ancestor, final String path) {
+        return path.equals(ancestor) || path.startsWith(ancestor.endsWith("/") ? ancestor : ancestor.concat("/"));
+    }
+
+    private static int depth(final String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+}
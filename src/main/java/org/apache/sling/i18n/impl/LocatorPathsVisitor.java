@@ -20,6 +20,7 @@ package org.apache.sling.i18n.impl;
 
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.sling.api.resource.AbstractResourceVisitor;
 import org.apache.sling.api.resource.Resource;
@@ -29,8 +30,7 @@ import org.apache.sling.api.resource.Resource;
  * the locator path
  */
 class LocatorPathsVisitor extends AbstractResourceVisitor {
-    private final PotentialLanguageRootCheck check;
-    private final Set<String> paths;
+    private final Consumer<Resource> callback;
     private int traverseDepth;
 
     /**
@@ -41,8 +41,21 @@ class LocatorPathsVisitor extends AbstractResourceVisitor {
      * @param traverseDepth the maximum depth to traverse the descendant
      */
     public LocatorPathsVisitor(PotentialLanguageRootCheck check, Set<String> paths) {
-        this.check = check;
-        this.paths = paths;
+        this(res -> {
+            if (check.isResourceBundle(res)) {
+                paths.add(res.getPath());
+            }
+        });
+    }
+
+    /**
+     * Constructor to prepare a visitor calling back for every resource
+     * within the traversal depth
+     *
+     * @param callback the callback invoked for each visited resource
+     */
+    public LocatorPathsVisitor(Consumer<Resource> callback) {
+        this.callback = callback;
     }
 
     public void accept(Resource res, int traverseDepth) {
@@ -66,12 +79,10 @@ class LocatorPathsVisitor extends AbstractResourceVisitor {
     }
 
     /**
-     * Check the given resource for a match
+     * Pass the given resource to the callback
      */
     @Override
     protected void visit(Resource res) {
-        if (check.isResourceBundle(res)) {
-            paths.add(res.getPath());
-        }
+        callback.accept(res);
     }
 }
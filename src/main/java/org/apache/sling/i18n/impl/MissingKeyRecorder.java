@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The <code>MissingKeyRecorder</code> keeps track of the keys most frequently
+ * requested from resource bundles without being found in any dictionary.
+ * <p>
+ * Only a sample of the lookups is recorded. Per locale the number of misses
+ * of each key is estimated with a fixed size count-min sketch, and the keys
+ * with the highest estimates are kept in a small candidate table. Both are
+ * updated with atomic operations only, so recording never blocks and its
+ * cost is bounded by the sketch depth and the number of probed candidate slots.
+ * Memory is bounded as well, as the number of tracked locales is limited.
+ */
+class MissingKeyRecorder {
+
+    /** maximum number of locales for which misses are tracked */
+    static final int MAX_LOCALES = 64;
+
+    /** number of keys reported per locale */
+    static final int TOP_K = 20;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_WIDTH = 1024;
+
+    private static final int CANDIDATES = 4 * TOP_K;
+
+    private static final int CANDIDATE_PROBES = 4;
+
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+    private final int sampleRate;
+
+    private final Map<Locale, LocaleSketch> sketches = new ConcurrentHashMap<>();
+
+    private final LongAdder sampledMisses = new LongAdder();
+
+    private final LongAdder droppedMisses = new LongAdder();
+
+    /**
+     * @param sampleRate one out of <code>sampleRate</code> lookups is sampled
+     */
+    MissingKeyRecorder(final int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns <code>true</code> if the current lookup should be sampled.
+     */
+    boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Records a sampled lookup of a key which is missing in the resource
+     * bundle of the given locale and all of its parents.
+     */
+    void record(final Locale locale, final String key) {
+        LocaleSketch sketch = sketches.get(locale);
+        if (sketch == null) {
+            if (sketches.size() >= MAX_LOCALES) {
+                droppedMisses.increment();
+                return;
+            }
+            sketch = sketches.computeIfAbsent(locale, l -> new LocaleSketch());
+        }
+        sampledMisses.increment();
+        sketch.record(key);
+    }
+
+    /**
+     * Returns the number of recorded misses.
+     */
+    long getSampledMisses() {
+        return sampledMisses.sum();
+    }
+
+    /**
+     * Returns the number of sampled misses not recorded because the maximum
+     * number of tracked locales has been reached.
+     */
+    long getDroppedMisses() {
+        return droppedMisses.sum();
+    }
+
+    /**
+     * Returns per locale the most frequently missing keys with the estimated
+     * number of sampled misses, ordered by decreasing estimate.
+     */
+    Map<Locale, List<Map.Entry<String, Long>>> getTopMissingKeys() {
+        final Map<Locale, List<Map.Entry<String, Long>>> result = new LinkedHashMap<>();
+        final List<Locale> locales = new ArrayList<>(sketches.keySet());
+        locales.sort(Comparator.comparing(Locale::toString));
+        for (final Locale locale : locales) {
+            result.put(locale, sketches.get(locale).getTopKeys());
+        }
+        return result;
+    }
+
+    void clear() {
+        sketches.clear();
+        sampledMisses.reset();
+        droppedMisses.reset();
+    }
+
+    private static final class LocaleSketch {
+
+        private final AtomicLongArray counts = new AtomicLongArray(SKETCH_DEPTH * SKETCH_WIDTH);
+
+        private final AtomicReferenceArray<String> candidates = new AtomicReferenceArray<>(CANDIDATES);
+
+        void record(final String key) {
+            final int hash = key.hashCode();
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                estimate = Math.min(estimate, counts.incrementAndGet(index(row, hash)));
+            }
+
+            // keep the key as candidate, possibly replacing the weakest of the probed candidates
+            int weakestProbe = -1;
+            long weakestEstimate = estimate;
+            for (int probe = 0; probe < CANDIDATE_PROBES; probe++) {
+                final int slot = slot(hash, probe);
+                final String candidate = candidates.get(slot);
+                if (candidate == null) {
+                    if (candidates.compareAndSet(slot, null, key)) {
+                        keepOnce(hash, key, probe);
+                        return;
+                    }
+                } else if (candidate.equals(key)) {
+                    return;
+                } else {
+                    final long candidateEstimate = estimate(candidate);
+                    if (candidateEstimate < weakestEstimate) {
+                        weakestProbe = probe;
+                        weakestEstimate = candidateEstimate;
+                    }
+                }
+            }
+            if (weakestProbe >= 0) {
+                final int weakestSlot = slot(hash, weakestProbe);
+                final String weakest = candidates.get(weakestSlot);
+                if (weakest != null
+                        && estimate(weakest) < estimate
+                        && candidates.compareAndSet(weakestSlot, weakest, key)) {
+                    keepOnce(hash, key, weakestProbe);
+                }
+            }
+        }
+
+        /**
+         * Removes the key just stored at the given probe if a concurrent miss of
+         * the same key stored it at another probed slot. Of two copies the one at
+         * the lower probe is kept, so that concurrent callers agree on it.
+         */
+        private void keepOnce(final int hash, final String key, final int storedProbe) {
+            final int storedSlot = slot(hash, storedProbe);
+            for (int probe = 0; probe < CANDIDATE_PROBES; probe++) {
+                final int slot = slot(hash, probe);
+                if (slot != storedSlot && key.equals(candidates.get(slot))) {
+                    if (probe < storedProbe) {
+                        candidates.compareAndSet(storedSlot, key, null);
+                    }
+                    return;
+                }
+            }
+        }
+
+        List<Map.Entry<String, Long>> getTopKeys() {
+            final List<Map.Entry<String, Long>> keys = new ArrayList<>();
+            final Set<String> seen = new HashSet<>();
+            for (int slot = 0; slot < CANDIDATES; slot++) {
+                final String candidate = candidates.get(slot);
+                // a copy stored by a concurrent miss might not have been removed yet
+                if (candidate != null && seen.add(candidate)) {
+                    keys.add(new SimpleImmutableEntry<>(candidate, estimate(candidate)));
+                }
+            }
+            keys.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            return Collections.unmodifiableList(keys.size() > TOP_K ? keys.subList(0, TOP_K) : keys);
+        }
+
+        private long estimate(final String key) {
+            final int hash = key.hashCode();
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                estimate = Math.min(estimate, counts.get(index(row, hash)));
+            }
+            return estimate;
+        }
+
+        private static int slot(final int hash, final int probe) {
+            return Math.floorMod(hash + probe * SEEDS[probe], CANDIDATES);
+        }
+
+        private static int index(final int row, final int hash) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return row * SKETCH_WIDTH + (h & (SKETCH_WIDTH - 1));
+        }
+    }
+}
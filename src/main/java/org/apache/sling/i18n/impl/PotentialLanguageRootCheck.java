@@ -53,21 +53,51 @@ class PotentialLanguageRootCheck {
         if (properties != null) {
             String language = properties.get(JcrResourceBundle.PROP_LANGUAGE, String.class);
             if (language != null && language.length() > 0) {
-                if (language.equals(localeString)
-                        || language.equals(localeStringLower)
-                        || language.equals(localeRFC4646String)
-                        || language.equals(localeRFC4646StringLower)) {
-                    // basename might be a multivalue (see https://issues.apache.org/jira/browse/SLING-4547)
-                    String[] baseNames = properties.get(JcrResourceBundle.PROP_BASENAME, new String[] {});
-                    if (baseName == null || Arrays.asList(baseNames).contains(baseName)) {
-                        match = true;
-                    }
-                }
+                // basename might be a multivalue (see https://issues.apache.org/jira/browse/SLING-4547)
+                match = isResourceBundle(language, properties.get(JcrResourceBundle.PROP_BASENAME, new String[] {}));
             }
         }
         return match;
     }
 
+    /**
+     * Checks if a resource with the given language and basenames is a match
+     * for a resource bundle resource
+     *
+     * @param language the <code>jcr:language</code> of the resource
+     * @param baseNames the <code>sling:basename</code> values of the resource
+     */
+    public boolean isResourceBundle(String language, String[] baseNames) {
+        if (language.equals(localeString)
+                || language.equals(localeStringLower)
+                || language.equals(localeRFC4646String)
+                || language.equals(localeRFC4646StringLower)) {
+            return baseName == null || Arrays.asList(baseNames).contains(baseName);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the given <code>jcr:language</code> value in a normalized form
+     * (lower case, using '_' as separator) so that it can be compared with
+     * {@link #normalizeLanguage(Locale)} independent of the notation used.
+     *
+     * @param language the language as stored in the repository
+     */
+    static String normalizeLanguage(String language) {
+        return language.replace('-', '_').toLowerCase();
+    }
+
+    /**
+     * Returns the normalized language string of the given locale.
+     *
+     * @param locale the locale
+     * @see #normalizeLanguage(String)
+     */
+    static String normalizeLanguage(Locale locale) {
+        return localeToString(locale).toLowerCase();
+    }
+
     private static String toRFC4646String(Locale locale) {
         return localeToString(locale).replace('_', '-');
     }
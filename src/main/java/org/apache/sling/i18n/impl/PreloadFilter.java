@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The <code>PreloadFilter</code> decides which resource bundles are preloaded
+ * and eagerly reloaded, based on glob patterns (<code>*</code> and <code>?</code>)
+ * for the locale and the base name of the bundles.
+ * <p>
+ * Locales are matched in the form of {@link Locale#toString()}, case insensitive
+ * and with <code>-</code> being equivalent to <code>_</code>, e.g. <code>de*</code>
+ * matches <code>de</code> and <code>de_AT</code>. Bundles without base name are
+ * matched as the empty string. A bundle is included if it matches any of the
+ * included patterns (or none are given) and none of the excluded patterns.
+ */
+class PreloadFilter {
+
+    private final Pattern includedLocales;
+
+    private final Pattern excludedLocales;
+
+    private final Pattern includedBaseNames;
+
+    private final Pattern excludedBaseNames;
+
+    PreloadFilter(
+            final String[] includedLocales,
+            final String[] excludedLocales,
+            final String[] includedBaseNames,
+            final String[] excludedBaseNames) {
+        this.includedLocales = toPattern(includedLocales, true);
+        this.excludedLocales = toPattern(excludedLocales, true);
+        this.includedBaseNames = toPattern(includedBaseNames, false);
+        this.excludedBaseNames = toPattern(excludedBaseNames, false);
+    }
+
+    /**
+     * Check whether the resource bundle with the given base name and locale is included.
+     * @param baseName The base name, may be <code>null</code>
+     * @param locale The locale
+     * @return {@code true} if the bundle is to be preloaded
+     */
+    boolean includes(final String baseName, final Locale locale) {
+        final String localeString = PotentialLanguageRootCheck.normalizeLanguage(locale);
+        final String baseNameString = baseName == null ? "" : baseName;
+        return matches(includedLocales, localeString, true)
+                && !matches(excludedLocales, localeString, false)
+                && matches(includedBaseNames, baseNameString, true)
+                && !matches(excludedBaseNames, baseNameString, false);
+    }
+
+    private static boolean matches(final Pattern pattern, final String value, final boolean matchesIfNone) {
+        return pattern == null ? matchesIfNone : pattern.matcher(value).matches();
+    }
+
+    /**
+     * Combines the glob patterns to a single regular expression, returning
+     * <code>null</code> if there are no patterns.
+     */
+    private static Pattern toPattern(final String[] globs, final boolean locale) {
+        if (globs == null) {
+            return null;
+        }
+        final StringBuilder regex = new StringBuilder();
+        for (String glob : globs) {
+            if (glob == null || glob.trim().isEmpty()) {
+                continue;
+            }
+            glob = glob.trim();
+            if (locale) {
+                glob = PotentialLanguageRootCheck.normalizeLanguage(glob);
+            }
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            for (final String part : glob.split("(?=[*?])|(?<=[*?])")) {
+                if ("*".equals(part)) {
+                    regex.append(".*");
+                } else if ("?".equals(part)) {
+                    regex.append('.');
+                } else if (!part.isEmpty()) {
+                    regex.append(Pattern.quote(part));
+                }
+            }
+        }
+        return regex.length() == 0 ? null : Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+
+import org.apache.sling.i18n.ResourceBundlePreloadStatus;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * The <code>PreloadStatus</code> is the {@link ResourceBundlePreloadStatus}
+ * service of the {@link JcrResourceBundleProvider}.
+ */
+final class PreloadStatus implements ResourceBundlePreloadStatus {
+
+    private final List<String> completedTiers = new ArrayList<>();
+
+    private ServiceRegistration<ResourceBundlePreloadStatus> registration;
+
+    synchronized void register(final BundleContext bundleContext) {
+        registration = bundleContext.registerService(ResourceBundlePreloadStatus.class, this, properties());
+    }
+
+    synchronized void unregister() {
+        if (registration != null) {
+            registration.unregister();
+            registration = null;
+        }
+    }
+
+    /**
+     * Marks the given tier as completed, updating the service properties.
+     */
+    synchronized void completed(final String tier) {
+        if (!completedTiers.contains(tier)) {
+            completedTiers.add(tier);
+            if (registration != null) {
+                registration.setProperties(properties());
+            }
+        }
+    }
+
+    private Dictionary<String, Object> properties() {
+        final Dictionary<String, Object> props = new Hashtable<>();
+        props.put(Constants.SERVICE_DESCRIPTION, "Apache Sling I18n Resource Bundle Preload Status");
+        props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        props.put(PROP_COMPLETED_TIERS, completedTiers.toArray(new String[0]));
+        if (!completedTiers.isEmpty()) {
+            props.put(PROP_TIER, completedTiers.get(completedTiers.size() - 1));
+        }
+        return props;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+
+/**
+ * The <code>ReloadDebouncer</code> collects the reloads required by resource
+ * change events until the changes have settled. The reloads are due once no
+ * event has arrived for the quiet period, but never later than the maximum
+ * delay after the first pending event, so that continuous changes still
+ * become visible.
+ * <p>
+ * If adaptive, the quiet period grows with the average interval between the
+ * recent events, so that changes arriving in a slow but steady sequence are
+ * reloaded together.
+ * <p>
+ * An optional stagger offset, drawn once per batch, is added to the due time
+ * so that cluster nodes receiving the same events do not reload at once.
+ */
+class ReloadDebouncer {
+
+    /** weight of the latest interval in the average interval between events */
+    private static final double INTERVAL_WEIGHT = 0.2;
+
+    /**
+     * The reloads collected until they became due
+     */
+    static final class Batch {
+        private final boolean reloadAll;
+        private final Set<Key> keys;
+        private final long firstEvent;
+
+        Batch(final boolean reloadAll, final Set<Key> keys, final long firstEvent) {
+            this.reloadAll = reloadAll;
+            this.keys = keys;
+            this.firstEvent = firstEvent;
+        }
+
+        boolean isReloadAll() {
+            return reloadAll;
+        }
+
+        Set<Key> getKeys() {
+            return keys;
+        }
+
+        /**
+         * Returns the time of the first event of this batch
+         */
+        long getFirstEvent() {
+            return firstEvent;
+        }
+    }
+
+    private final long quietPeriod;
+
+    private final long maxDelay;
+
+    private final boolean adaptive;
+
+    private final LongSupplier stagger;
+
+    // guarded by this
+
+    private boolean reloadAll;
+
+    private Set<Key> keys = new LinkedHashSet<>();
+
+    private long firstEvent = -1;
+
+    private long lastEvent = -1;
+
+    private double averageInterval = -1;
+
+    private long offset;
+
+    /**
+     * @param quietPeriod the time in milliseconds without events after which the reloads are due
+     * @param maxDelay the maximum time in milliseconds the reloads are delayed after the first event
+     * @param adaptive whether the quiet period is extended for slow sequences of events
+     */
+    ReloadDebouncer(final long quietPeriod, final long maxDelay, final boolean adaptive) {
+        this(quietPeriod, maxDelay, adaptive, () -> 0);
+    }
+
+    /**
+     * @param quietPeriod the time in milliseconds without events after which the reloads are due
+     * @param maxDelay the maximum time in milliseconds the reloads are delayed after the first event
+     * @param adaptive whether the quiet period is extended for slow sequences of events
+     * @param stagger supplies the offset in milliseconds added to the due time of each batch
+     */
+    ReloadDebouncer(final long quietPeriod, final long maxDelay, final boolean adaptive, final LongSupplier stagger) {
+        this.quietPeriod = Math.max(0, quietPeriod);
+        this.maxDelay = Math.max(this.quietPeriod, maxDelay);
+        this.adaptive = adaptive;
+        this.stagger = stagger;
+    }
+
+    /**
+     * Adds the reloads required by an event.
+     *
+     * @param now the time of the event
+     * @param all whether all bundles have to be reloaded
+     * @param reloadKeys the keys of the bundles to reload, ignored if <code>all</code> is set
+     * @return the time at which the pending reloads are due
+     */
+    synchronized long add(final long now, final boolean all, final Collection<Key> reloadKeys) {
+        if (lastEvent >= 0 && now - lastEvent <= maxDelay) {
+            final long interval = now - lastEvent;
+            averageInterval = averageInterval < 0
+                    ? interval
+                    : (1 - INTERVAL_WEIGHT) * averageInterval + INTERVAL_WEIGHT * interval;
+        } else {
+            averageInterval = -1;
+        }
+        lastEvent = now;
+        if (firstEvent < 0) {
+            firstEvent = now;
+            offset = Math.max(0, stagger.getAsLong());
+        }
+        if (all) {
+            reloadAll = true;
+            keys.clear();
+        } else if (!reloadAll) {
+            keys.addAll(reloadKeys);
+        }
+        return getDueTime();
+    }
+
+    /**
+     * Returns the time at which the pending reloads are due or -1 if there are none
+     */
+    synchronized long getDueTime() {
+        if (firstEvent < 0) {
+            return -1;
+        }
+        return Math.min(lastEvent + getQuietPeriod(), firstEvent + maxDelay) + offset;
+    }
+
+    /**
+     * Returns the current quiet period
+     */
+    synchronized long getQuietPeriod() {
+        if (!adaptive || averageInterval < 0) {
+            return quietPeriod;
+        }
+        return Math.max(quietPeriod, Math.min(maxDelay, Math.round(2 * averageInterval)));
+    }
+
+    /**
+     * Removes and returns the pending reloads, <code>null</code> if there are none
+     */
+    synchronized Batch take() {
+        if (firstEvent < 0) {
+            return null;
+        }
+        final Batch batch = new Batch(reloadAll, reloadAll ? Collections.emptySet() : keys, firstEvent);
+        reloadAll = false;
+        keys = new LinkedHashSet<>();
+        firstEvent = -1;
+        return batch;
+    }
+}
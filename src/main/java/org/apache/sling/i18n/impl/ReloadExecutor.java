@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>ReloadExecutor</code> runs the reloads of the
+ * {@link JcrResourceBundleProvider} on the reload threads of the provider
+ * instead of the threads of the Sling scheduler, which are shared with all
+ * other jobs of the instance.
+ * <p>
+ * Reload requests are not queued one by one but merged into the pending work:
+ * a key already pending is reloaded once and all pending keys are dropped in
+ * favor of a pending reload of all bundles. The number of pending keys is
+ * bounded, a request exceeding the bound is turned into a reload of all
+ * bundles.
+ * <p>
+ * The pending work is drained by a single task at a time, so reloads never
+ * run concurrently. A reload requested while another one runs is picked up
+ * by the running drain once it is done, even if the drain runs on the thread
+ * which requested the first reload.
+ */
+class ReloadExecutor {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Executor executor;
+
+    private final int queueSize;
+
+    private final Runnable reloadAll;
+
+    private final Consumer<Set<Key>> reloadKeys;
+
+    private final ResourceBundleStatistics statistics;
+
+    // the pending work, guarded by this
+
+    private boolean reloadAllPending;
+
+    private Set<Key> pendingKeys = new LinkedHashSet<>();
+
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+
+    /** whether a drain has been submitted and not finished yet */
+    private boolean draining;
+
+    private boolean closed;
+
+    /**
+     * @param executor the executor running the reloads, not shut down by {@link #close()}
+     * @param queueSize the maximum number of keys pending reload
+     * @param reloadAll reloads all bundles
+     * @param reloadKeys reloads the bundles with the given keys
+     * @param statistics receives the number of merged and rejected requests
+     */
+    ReloadExecutor(
+            final Executor executor,
+            final int queueSize,
+            final Runnable reloadAll,
+            final Consumer<Set<Key>> reloadKeys,
+            final ResourceBundleStatistics statistics) {
+        this.executor = executor;
+        this.queueSize = queueSize;
+        this.reloadAll = reloadAll;
+        this.reloadKeys = reloadKeys;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Requests a reload of all bundles, replacing all pending reloads of single bundles.
+     */
+    void reloadAll() {
+        synchronized (this) {
+            if (reloadAllPending) {
+                statistics.reloadMerged();
+                return;
+            }
+            if (!pendingKeys.isEmpty()) {
+                statistics.reloadMerged();
+                pendingKeys.clear();
+            }
+            reloadAllPending = true;
+        }
+        drain();
+    }
+
+    /**
+     * Requests a reload of the bundles with the given keys.
+     *
+     * @param keys the keys
+     */
+    void reload(final Collection<Key> keys) {
+        synchronized (this) {
+            if (reloadAllPending) {
+                statistics.reloadMerged();
+                return;
+            }
+            final boolean merged = !pendingKeys.isEmpty();
+            pendingKeys.addAll(keys);
+            if (pendingKeys.size() > queueSize) {
+                log.info("More than {} resource bundles are pending reload, reloading all bundles instead", queueSize);
+                statistics.reloadRejected();
+                pendingKeys.clear();
+                reloadAllPending = true;
+            } else if (merged) {
+                statistics.reloadMerged();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Runs the given task along with the reloads.
+     *
+     * @param task the task
+     */
+    void execute(final Runnable task) {
+        synchronized (this) {
+            pendingTasks.add(task);
+        }
+        drain();
+    }
+
+    /**
+     * Returns the number of pending keys, reloads of all bundles and tasks
+     */
+    synchronized int getQueueDepth() {
+        return pendingKeys.size() + (reloadAllPending ? 1 : 0) + pendingTasks.size();
+    }
+
+    /**
+     * Waits until the pending work has run and no drain is running anymore.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return <code>false</code> if the timeout elapsed before
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized boolean awaitIdle(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long end = System.nanoTime() + unit.toNanos(timeout);
+        while (draining || getQueueDepth() > 0) {
+            final long remaining = end - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Drops all pending work, running reloads stop after their current step.
+     */
+    synchronized void close() {
+        closed = true;
+        reloadAllPending = false;
+        pendingKeys.clear();
+        pendingTasks.clear();
+        notifyAll();
+    }
+
+    private void drain() {
+        synchronized (this) {
+            // the running drain takes the new work as well
+            if (closed || draining) {
+                return;
+            }
+            draining = true;
+        }
+        try {
+            executor.execute(this::run);
+        } catch (final RejectedExecutionException e) {
+            log.debug("Not reloading resource bundles as the executor has been shut down");
+            drained();
+        }
+    }
+
+    private void run() {
+        boolean done = false;
+        try {
+            while (true) {
+                final boolean all;
+                final Set<Key> keys;
+                final List<Runnable> tasks;
+                synchronized (this) {
+                    all = reloadAllPending;
+                    reloadAllPending = false;
+                    keys = pendingKeys;
+                    pendingKeys = new LinkedHashSet<>();
+                    tasks = new ArrayList<>(pendingTasks);
+                    pendingTasks.clear();
+                    if (closed || (!all && keys.isEmpty() && tasks.isEmpty())) {
+                        drained();
+                        done = true;
+                        return;
+                    }
+                }
+                for (final Runnable task : tasks) {
+                    runSafely(task);
+                }
+                if (all) {
+                    runSafely(reloadAll);
+                } else if (!keys.isEmpty()) {
+                    runSafely(() -> reloadKeys.accept(keys));
+                }
+            }
+        } finally {
+            if (!done) {
+                // let the next request start a new drain
+                drained();
+            }
+        }
+    }
+
+    private synchronized void drained() {
+        draining = false;
+        notifyAll();
+    }
+
+    private void runSafely(final Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (final RuntimeException e) {
+            log.error("Unable to reload resource bundles", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.sling.i18n.ResourceBundleChange;
+
+/**
+ * The <code>ResourceBundleChangeImpl</code> is the change of a resource bundle
+ * reported by the {@link JcrResourceBundleProvider}.
+ */
+class ResourceBundleChangeImpl implements ResourceBundleChange {
+
+    private final String baseName;
+
+    private final Locale locale;
+
+    private final Set<String> changedKeys;
+
+    ResourceBundleChangeImpl(final String baseName, final Locale locale, final Set<String> changedKeys) {
+        this.baseName = baseName;
+        this.locale = locale;
+        this.changedKeys = changedKeys != null ? Collections.unmodifiableSet(changedKeys) : null;
+    }
+
+    @Override
+    public String getBaseName() {
+        return baseName;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceBundleChange [baseName=" + baseName + ", locale=" + locale + ", changedKeys=" + changedKeys
+                + "]";
+    }
+}
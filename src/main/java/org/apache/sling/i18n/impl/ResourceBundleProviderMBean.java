@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import javax.management.openmbean.TabularData;
+
+/**
+ * The <code>ResourceBundleProviderMBean</code> exposes the cache and the
+ * statistics of the {@link JcrResourceBundleProvider} through JMX.
+ */
+public interface ResourceBundleProviderMBean {
+
+    /**
+     * Returns the cached resource bundles with their base name, locale and
+     * number of messages provided by the bundle itself (without its parents).
+     */
+    TabularData getCacheSizes();
+
+    /**
+     * Returns the number of resource bundle requests answered from the cache.
+     */
+    long getCacheHits();
+
+    /**
+     * Returns the number of resource bundle requests not found in the cache.
+     */
+    long getCacheMisses();
+
+    /**
+     * Returns the number of resource bundles loaded from the repository.
+     */
+    long getLoads();
+
+    /**
+     * Returns the total time in milliseconds spent loading resource bundles.
+     */
+    long getTotalLoadTime();
+
+    /**
+     * Returns the number of loads per load time bucket.
+     */
+    TabularData getLoadTimeHistogram();
+
+    /**
+     * Returns the number of requests for locales without dictionaries which
+     * have been answered with the resource bundle of a parent locale.
+     */
+    long getRedirectedRequests();
+
+    /**
+     * Returns the number of requests which have been answered with the resource
+     * bundle of a parent locale because loading the requested bundle took longer
+     * than the load timeout.
+     */
+    long getLoadFallbacks();
+
+    /**
+     * Returns the number of loads currently waiting because the maximum
+     * number of concurrent loads is reached.
+     */
+    int getQueuedLoads();
+
+    /**
+     * Returns the number of loads which had to wait for other loads to finish.
+     */
+    long getWaitingLoads();
+
+    /**
+     * Returns the total time in milliseconds loads waited for other loads to finish.
+     */
+    long getTotalLoadWaitTime();
+
+    /**
+     * Returns the longest time in milliseconds a load waited for other loads to finish.
+     */
+    long getMaxLoadWaitTime();
+
+    /**
+     * Returns the number of times all resource bundles have been reloaded.
+     */
+    long getReloadAllCount();
+
+    /**
+     * Returns the number of times a single resource bundle has been reloaded.
+     */
+    long getBundleReloadCount();
+
+    /**
+     * Returns the number of scheduled reload jobs which did not run yet.
+     */
+    int getPendingReloadJobs();
+
+    /**
+     * Returns the number of bundle keys, reloads of all bundles and other tasks
+     * waiting for the reload executor.
+     */
+    int getReloadQueueDepth();
+
+    /**
+     * Returns the number of reload requests which have been merged into an
+     * already pending reload.
+     */
+    long getReloadsMerged();
+
+    /**
+     * Returns the number of reload requests which exceeded the maximum number
+     * of bundles pending reload and have been turned into a reload of all bundles.
+     */
+    long getReloadsRejected();
+
+    /**
+     * Returns the number of batches of resource changes which have been made
+     * visible by reloading the affected resource bundles.
+     */
+    long getChangeBatches();
+
+    /**
+     * Returns the total time in milliseconds from the first change of each batch
+     * until the change became visible.
+     */
+    long getTotalChangeVisibilityTime();
+
+    /**
+     * Returns the maximum time in milliseconds from the first change of a batch
+     * until the change became visible.
+     */
+    long getMaxChangeVisibilityTime();
+
+    /**
+     * Returns the number of resource change events which have been processed.
+     */
+    long getEventsProcessed();
+
+    /**
+     * Returns the number of resource change events which have been ignored
+     * because their path is not included by the path filter.
+     */
+    long getEventsFiltered();
+
+    /**
+     * Returns the number of language root paths from which the cached
+     * resource bundles have been loaded.
+     */
+    int getLanguageRootPathsCount();
+
+    /**
+     * Returns per locale the keys most frequently missing in all dictionaries
+     * with the estimated number of sampled lookups. This is empty unless
+     * missing keys are sampled.
+     */
+    TabularData getMissingKeys();
+
+    /**
+     * Returns the number of sampled lookups of keys missing in all dictionaries.
+     */
+    long getSampledMissingKeys();
+
+    /**
+     * Clears the recorded missing keys.
+     */
+    void resetMissingKeys();
+
+    /**
+     * Reloads the resource bundle with the given base name and locale together
+     * with all cached bundles depending on it. The reload is queued with the
+     * other reloads and runs asynchronously.
+     *
+     * @param baseName the base name, may be empty for the bundle without base name
+     * @param locale the locale as string, e.g. <code>de_AT</code>
+     */
+    void reloadBundle(String baseName, String locale);
+
+    /**
+     * Clears the cache and, if configured, preloads all resource bundles again.
+     * The reload is queued with the other reloads and runs asynchronously.
+     */
+    void reloadAll();
+}
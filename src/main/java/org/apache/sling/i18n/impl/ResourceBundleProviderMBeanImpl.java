@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+
+/**
+ * The <code>ResourceBundleProviderMBeanImpl</code> is the JMX view on a
+ * {@link JcrResourceBundleProvider}. It is registered as a service by the
+ * provider and picked up by the JMX whiteboard.
+ */
+class ResourceBundleProviderMBeanImpl extends StandardMBean implements ResourceBundleProviderMBean {
+
+    /** name of the registered MBean */
+    static final String OBJECT_NAME = "org.apache.sling.i18n:type=ResourceBundleProvider";
+
+    private static final String[] CACHE_ENTRY_ITEMS = {"locale", "baseName", "messages", "alias"};
+
+    private static final String[] BUCKET_ITEMS = {"bucket", "loads"};
+
+    private static final String[] MISSING_KEY_ITEMS = {"locale", "key", "misses"};
+
+    private static final CompositeType CACHE_ENTRY_TYPE;
+
+    private static final TabularType CACHE_TYPE;
+
+    private static final CompositeType BUCKET_TYPE;
+
+    private static final TabularType HISTOGRAM_TYPE;
+
+    private static final CompositeType MISSING_KEY_TYPE;
+
+    private static final TabularType MISSING_KEYS_TYPE;
+
+    static {
+        try {
+            CACHE_ENTRY_TYPE = new CompositeType(
+                    "CacheEntry",
+                    "Cached resource bundle",
+                    CACHE_ENTRY_ITEMS,
+                    new String[] {
+                        "Locale of the bundle",
+                        "Base name of the bundle, empty if none",
+                        "Number of messages provided by the bundle itself",
+                        "Whether the bundle has no messages and just refers to its parent"
+                    },
+                    new OpenType<?>[] {SimpleType.STRING, SimpleType.STRING, SimpleType.INTEGER, SimpleType.BOOLEAN});
+            CACHE_TYPE = new TabularType(
+                    "Cache", "Cached resource bundles", CACHE_ENTRY_TYPE, new String[] {"locale", "baseName"});
+            BUCKET_TYPE = new CompositeType(
+                    "LoadTimeBucket",
+                    "Load time bucket",
+                    BUCKET_ITEMS,
+                    new String[] {"Load time range in milliseconds", "Number of loads in this range"},
+                    new OpenType<?>[] {SimpleType.STRING, SimpleType.LONG});
+            HISTOGRAM_TYPE =
+                    new TabularType("LoadTimeHistogram", "Load time histogram", BUCKET_TYPE, new String[] {"bucket"});
+            MISSING_KEY_TYPE = new CompositeType(
+                    "MissingKey",
+                    "Key missing in all dictionaries",
+                    MISSING_KEY_ITEMS,
+                    new String[] {
+                        "Locale of the requested bundle", "The missing key", "Estimated number of sampled lookups"
+                    },
+                    new OpenType<?>[] {SimpleType.STRING, SimpleType.STRING, SimpleType.LONG});
+            MISSING_KEYS_TYPE = new TabularType(
+                    "MissingKeys", "Keys missing in all dictionaries", MISSING_KEY_TYPE, new String[] {"locale", "key"
+                    });
+        } catch (final OpenDataException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final JcrResourceBundleProvider provider;
+
+    ResourceBundleProviderMBeanImpl(final JcrResourceBundleProvider provider) throws NotCompliantMBeanException {
+        super(ResourceBundleProviderMBean.class);
+        this.provider = provider;
+    }
+
+    @Override
+    public TabularData getCacheSizes() {
+        final TabularDataSupport data = new TabularDataSupport(CACHE_TYPE);
+        for (final JcrResourceBundle bundle : provider.getCachedResourceBundles()) {
+            try {
+                data.put(new CompositeDataSupport(CACHE_ENTRY_TYPE, CACHE_ENTRY_ITEMS, new Object[] {
+                    bundle.getLocale().toString(),
+                    bundle.getBaseName() == null ? "" : bundle.getBaseName(),
+                    bundle.getMessageCount(),
+                    bundle.isAlias()
+                }));
+            } catch (final OpenDataException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return provider.getStatistics().getCacheHits();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return provider.getStatistics().getCacheMisses();
+    }
+
+    @Override
+    public long getLoads() {
+        return provider.getStatistics().getLoads();
+    }
+
+    @Override
+    public long getTotalLoadTime() {
+        return provider.getStatistics().getLoadTime();
+    }
+
+    @Override
+    public TabularData getLoadTimeHistogram() {
+        final TabularDataSupport data = new TabularDataSupport(HISTOGRAM_TYPE);
+        final long[] histogram = provider.getStatistics().getLoadTimeHistogram();
+        final long[] bounds = ResourceBundleStatistics.LOAD_TIME_BOUNDS;
+        for (int i = 0; i < histogram.length; i++) {
+            final String bucket = (i < bounds.length)
+                    ? (i == 0 ? 0 : bounds[i - 1]) + "-" + bounds[i] + "ms"
+                    : ">=" + bounds[bounds.length - 1] + "ms";
+            try {
+                data.put(new CompositeDataSupport(BUCKET_TYPE, BUCKET_ITEMS, new Object[] {bucket, histogram[i]}));
+            } catch (final OpenDataException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public long getRedirectedRequests() {
+        return provider.getStatistics().getRedirectedRequests();
+    }
+
+    @Override
+    public long getLoadFallbacks() {
+        return provider.getStatistics().getLoadFallbacks();
+    }
+
+    @Override
+    public int getQueuedLoads() {
+        return provider.getQueuedLoads();
+    }
+
+    @Override
+    public long getWaitingLoads() {
+        return provider.getStatistics().getWaitingLoads();
+    }
+
+    @Override
+    public long getTotalLoadWaitTime() {
+        return provider.getStatistics().getLoadWaitTime();
+    }
+
+    @Override
+    public long getMaxLoadWaitTime() {
+        return provider.getStatistics().getMaxLoadWaitTime();
+    }
+
+    @Override
+    public long getReloadAllCount() {
+        return provider.getStatistics().getReloadAllCount();
+    }
+
+    @Override
+    public long getBundleReloadCount() {
+        return provider.getStatistics().getBundleReloadCount();
+    }
+
+    @Override
+    public int getPendingReloadJobs() {
+        return provider.getPendingReloadJobs();
+    }
+
+    @Override
+    public int getReloadQueueDepth() {
+        return provider.getReloadQueueDepth();
+    }
+
+    @Override
+    public long getReloadsMerged() {
+        return provider.getStatistics().getReloadsMerged();
+    }
+
+    @Override
+    public long getReloadsRejected() {
+        return provider.getStatistics().getReloadsRejected();
+    }
+
+    @Override
+    public long getChangeBatches() {
+        return provider.getStatistics().getChangeBatches();
+    }
+
+    @Override
+    public long getTotalChangeVisibilityTime() {
+        return provider.getStatistics().getChangeVisibilityTime();
+    }
+
+    @Override
+    public long getMaxChangeVisibilityTime() {
+        return provider.getStatistics().getMaxChangeVisibilityTime();
+    }
+
+    @Override
+    public long getEventsProcessed() {
+        return provider.getStatistics().getEventsProcessed();
+    }
+
+    @Override
+    public long getEventsFiltered() {
+        return provider.getStatistics().getEventsFiltered();
+    }
+
+    @Override
+    public int getLanguageRootPathsCount() {
+        return provider.getLanguageRootPathsCount();
+    }
+
+    @Override
+    public TabularData getMissingKeys() {
+        final TabularDataSupport data = new TabularDataSupport(MISSING_KEYS_TYPE);
+        final MissingKeyRecorder recorder = provider.getMissingKeyRecorder();
+        if (recorder != null) {
+            for (final Map.Entry<Locale, List<Map.Entry<String, Long>>> locale :
+                    recorder.getTopMissingKeys().entrySet()) {
+                for (final Map.Entry<String, Long> key : locale.getValue()) {
+                    try {
+                        data.put(new CompositeDataSupport(MISSING_KEY_TYPE, MISSING_KEY_ITEMS, new Object[] {
+                            locale.getKey().toString(), key.getKey(), key.getValue()
+                        }));
+                    } catch (final OpenDataException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public long getSampledMissingKeys() {
+        final MissingKeyRecorder recorder = provider.getMissingKeyRecorder();
+        return recorder != null ? recorder.getSampledMisses() : 0;
+    }
+
+    @Override
+    public void resetMissingKeys() {
+        final MissingKeyRecorder recorder = provider.getMissingKeyRecorder();
+        if (recorder != null) {
+            recorder.clear();
+        }
+    }
+
+    @Override
+    public void reloadBundle(final String baseName, final String locale) {
+        final String name = (baseName == null || baseName.isEmpty()) ? null : baseName;
+        provider.queueReload(Collections.singleton(new Key(name, JcrResourceBundleProvider.toLocale(locale))));
+    }
+
+    @Override
+    public void reloadAll() {
+        provider.queueReloadAll();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The <code>ResourceBundleStatistics</code> collects the counters of the
+ * {@link JcrResourceBundleProvider}. All counters are striped adders, so that
+ * updating them never causes contention between concurrent requests.
+ */
+class ResourceBundleStatistics {
+
+    /**
+     * upper bounds (exclusive) in milliseconds of the load time histogram
+     * buckets, the last bucket takes all loads exceeding the last bound
+     */
+    static final long[] LOAD_TIME_BOUNDS = {1, 10, 100, 1000, 10000};
+
+    private final LongAdder cacheHits = new LongAdder();
+
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadTime = new LongAdder();
+
+    private final LongAdder[] loadTimeHistogram = new LongAdder[LOAD_TIME_BOUNDS.length + 1];
+
+    private final LongAdder redirectedRequests = new LongAdder();
+
+    private final LongAdder loadFallbacks = new LongAdder();
+
+    private final LongAdder waitingLoads = new LongAdder();
+
+    private final LongAdder loadWaitTime = new LongAdder();
+
+    private final LongAccumulator maxLoadWaitTime = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder reloadAllCount = new LongAdder();
+
+    private final LongAdder bundleReloadCount = new LongAdder();
+
+    private final LongAdder eventsProcessed = new LongAdder();
+
+    private final LongAdder eventsFiltered = new LongAdder();
+
+    private final LongAdder reloadsMerged = new LongAdder();
+
+    private final LongAdder reloadsRejected = new LongAdder();
+
+    private final LongAdder changeBatches = new LongAdder();
+
+    private final LongAdder changeVisibilityTime = new LongAdder();
+
+    private final LongAccumulator maxChangeVisibilityTime = new LongAccumulator(Math::max, 0);
+
+    ResourceBundleStatistics() {
+        for (int i = 0; i < loadTimeHistogram.length; i++) {
+            loadTimeHistogram[i] = new LongAdder();
+        }
+    }
+
+    void cacheHit() {
+        cacheHits.increment();
+    }
+
+    void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    /**
+     * Records a resource bundle having been loaded from the repository.
+     *
+     * @param millis the time taken to load the bundle in milliseconds
+     */
+    void loaded(final long millis) {
+        loads.increment();
+        loadTime.add(millis);
+        int bucket = 0;
+        while (bucket < LOAD_TIME_BOUNDS.length && millis >= LOAD_TIME_BOUNDS[bucket]) {
+            bucket++;
+        }
+        loadTimeHistogram[bucket].increment();
+    }
+
+    void redirected() {
+        redirectedRequests.increment();
+    }
+
+    void loadFallback() {
+        loadFallbacks.increment();
+    }
+
+    /**
+     * Records a load admitted after waiting for other loads to finish.
+     *
+     * @param millis the time waited in milliseconds
+     */
+    void loadWaited(final long millis) {
+        waitingLoads.increment();
+        loadWaitTime.add(millis);
+        maxLoadWaitTime.accumulate(millis);
+    }
+
+    void reloadedAll() {
+        reloadAllCount.increment();
+    }
+
+    void reloadedBundle() {
+        bundleReloadCount.increment();
+    }
+
+    void eventProcessed() {
+        eventsProcessed.increment();
+    }
+
+    void eventFiltered() {
+        eventsFiltered.increment();
+    }
+
+    /**
+     * Records a reload request merged into an already pending reload.
+     */
+    void reloadMerged() {
+        reloadsMerged.increment();
+    }
+
+    /**
+     * Records a reload request exceeding the bound of pending reloads.
+     */
+    void reloadRejected() {
+        reloadsRejected.increment();
+    }
+
+    /**
+     * Records a batch of changes having become visible by a reload.
+     *
+     * @param millis the time since the first change of the batch in milliseconds
+     */
+    void changesVisible(final long millis) {
+        changeBatches.increment();
+        changeVisibilityTime.add(millis);
+        maxChangeVisibilityTime.accumulate(millis);
+    }
+
+    long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    long getLoads() {
+        return loads.sum();
+    }
+
+    long getLoadTime() {
+        return loadTime.sum();
+    }
+
+    /**
+     * Returns the number of loads per load time bucket, see {@link #LOAD_TIME_BOUNDS}.
+     */
+    long[] getLoadTimeHistogram() {
+        final long[] histogram = new long[loadTimeHistogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = loadTimeHistogram[i].sum();
+        }
+        return histogram;
+    }
+
+    long getRedirectedRequests() {
+        return redirectedRequests.sum();
+    }
+
+    long getLoadFallbacks() {
+        return loadFallbacks.sum();
+    }
+
+    long getWaitingLoads() {
+        return waitingLoads.sum();
+    }
+
+    long getLoadWaitTime() {
+        return loadWaitTime.sum();
+    }
+
+    long getMaxLoadWaitTime() {
+        return maxLoadWaitTime.get();
+    }
+
+    long getReloadAllCount() {
+        return reloadAllCount.sum();
+    }
+
+    long getBundleReloadCount() {
+        return bundleReloadCount.sum();
+    }
+
+    long getEventsProcessed() {
+        return eventsProcessed.sum();
+    }
+
+    long getEventsFiltered() {
+        return eventsFiltered.sum();
+    }
+
+    long getReloadsMerged() {
+        return reloadsMerged.sum();
+    }
+
+    long getReloadsRejected() {
+        return reloadsRejected.sum();
+    }
+
+    long getChangeBatches() {
+        return changeBatches.sum();
+    }
+
+    long getChangeVisibilityTime() {
+        return changeVisibilityTime.sum();
+    }
+
+    long getMaxChangeVisibilityTime() {
+        return maxChangeVisibilityTime.get();
+    }
+}
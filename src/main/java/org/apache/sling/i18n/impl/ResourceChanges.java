@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Set;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+
+/**
+ * Classification of resource changes based on the information carried by
+ * the {@link ResourceChange} itself, without reading from the repository.
+ */
+final class ResourceChanges {
+
+    private ResourceChanges() {
+        // static methods only
+    }
+
+    /**
+     * Checks whether the given change added, changed or removed one of the
+     * given properties.
+     *
+     * @param change the change, either of type ADDED or CHANGED
+     * @param propertyNames the names of the properties
+     * @return {@link Boolean#TRUE} if at least one of the properties has been
+     *         touched, {@link Boolean#FALSE} if none of them has been touched
+     *         and <code>null</code> if the change does not provide the names
+     *         of the touched properties
+     */
+    @SuppressWarnings("deprecation")
+    static Boolean touches(final ResourceChange change, final String... propertyNames) {
+        final Set<String> added = change.getAddedPropertyNames();
+        if (added == null) {
+            return null;
+        }
+        if (containsAny(added, propertyNames)) {
+            return Boolean.TRUE;
+        }
+        if (change.getType() == ChangeType.CHANGED) {
+            final Set<String> changed = change.getChangedPropertyNames();
+            final Set<String> removed = change.getRemovedPropertyNames();
+            if (changed == null || removed == null) {
+                return null;
+            }
+            return containsAny(changed, propertyNames) || containsAny(removed, propertyNames);
+        }
+        return Boolean.FALSE;
+    }
+
+    private static boolean containsAny(final Set<String> names, final String... propertyNames) {
+        for (final String name : propertyNames) {
+            if (names.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
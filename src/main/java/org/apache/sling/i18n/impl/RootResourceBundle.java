@@ -35,12 +35,33 @@ import java.util.ResourceBundle;
  * <code>key</code> as the value</li>
  * <li>The {@link #getKeys()} method always returns an empty enumeration</li>
  * </ul>
+ * Optionally the root resource bundle holds the {@link MissingKeyRecorder}
+ * to which the resource bundles in its hierarchy report sampled lookups of
+ * keys missing in all of their dictionaries.
  */
 public class RootResourceBundle extends ResourceBundle {
 
     // The pseudo Locale returned by getLocale()
     private final Locale locale = new Locale("");
 
+    private final MissingKeyRecorder missingKeyRecorder;
+
+    public RootResourceBundle() {
+        this(null);
+    }
+
+    RootResourceBundle(final MissingKeyRecorder missingKeyRecorder) {
+        this.missingKeyRecorder = missingKeyRecorder;
+    }
+
+    /**
+     * Returns the recorder for missing keys or <code>null</code> if missing
+     * keys are not recorded.
+     */
+    MissingKeyRecorder getMissingKeyRecorder() {
+        return missingKeyRecorder;
+    }
+
     /**
      * Returns a <code>Locale</code> with empty language, country, and variant.
      */
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The <code>SupportedLocales</code> are the languages of all dictionaries in
+ * the repository, per base name. A resource bundle without base name uses the
+ * dictionaries of all base names, a bundle with base name only the ones
+ * declaring that base name.
+ * <p>
+ * Instances are collected once with {@link #add(String, String[])} and not
+ * modified after being published.
+ */
+class SupportedLocales {
+
+    /** normalized languages (see {@link PotentialLanguageRootCheck#normalizeLanguage(String)}) of all dictionaries */
+    private final Set<String> languages = new HashSet<>();
+
+    /** normalized languages of the dictionaries by base name */
+    private final Map<String, Set<String>> languagesByBaseName = new HashMap<>();
+
+    /**
+     * Adds a dictionary.
+     *
+     * @param language the <code>jcr:language</code> of the dictionary
+     * @param baseNames the <code>sling:basename</code> values of the dictionary, may be empty
+     */
+    void add(final String language, final String[] baseNames) {
+        final String normalized = PotentialLanguageRootCheck.normalizeLanguage(language);
+        languages.add(normalized);
+        for (final String baseName : baseNames) {
+            languagesByBaseName.computeIfAbsent(baseName, b -> new HashSet<>()).add(normalized);
+        }
+    }
+
+    /**
+     * Returns whether there are dictionaries for the given base name and locale.
+     */
+    boolean isSupported(final String baseName, final Locale locale) {
+        final Set<String> candidates =
+                baseName == null ? languages : languagesByBaseName.getOrDefault(baseName, Collections.emptySet());
+        return candidates.contains(PotentialLanguageRootCheck.normalizeLanguage(locale));
+    }
+
+    @Override
+    public String toString() {
+        return "SupportedLocales [languages=" + languages + ", languagesByBaseName=" + languagesByBaseName + "]";
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.commons.scheduler.ScheduleOptions;
+import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.serviceusermapping.ServiceUserMapped;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.apache.sling.testing.resourceresolver.MockFindQueryResources;
+import org.junit.Rule;
+import org.mockito.Mockito;
+import org.osgi.framework.ServiceEvent;
+
+/**
+ * Base class of the tests of the {@link JcrResourceBundleProvider} activated in
+ * a mocked OSGi environment with a mocked scheduler, whose jobs only run when
+ * the tests run them.
+ */
+public abstract class AbstractJcrResourceBundleProviderTest {
+
+    @Rule
+    public final SlingContext context = new SlingContext();
+
+    /** blocks the queries for language roots of all threads but the test thread while set */
+    protected volatile CountDownLatch slowQueries;
+
+    /** counted down once a query is blocked by {@link #slowQueries} */
+    protected final CountDownLatch blockedQuery = new CountDownLatch(1);
+
+    private final Thread testThread = Thread.currentThread();
+
+    protected static List<Locale> cachedLocales(JcrResourceBundleProvider provider) {
+        List<Locale> locales = new ArrayList<>();
+        for (JcrResourceBundle bundle : provider.getCachedResourceBundles()) {
+            locales.add(bundle.getLocale());
+        }
+        return locales;
+    }
+
+    protected void createDictionary(String path, String language, String key, String message) {
+        context.build()
+                .resource(path, "jcr:language", language, "jcr:mixinTypes", new String[] {"mix:language"})
+                .resource(key, "sling:message", message)
+                .commit();
+    }
+
+    /**
+     * Returns a latch counted down once a resource bundle of the given locale is registered as service.
+     */
+    protected CountDownLatch registration(Locale locale) {
+        CountDownLatch registered = new CountDownLatch(1);
+        context.bundleContext().addServiceListener(event -> {
+            if (event.getType() == ServiceEvent.REGISTERED
+                    && locale.toString().equals(event.getServiceReference().getProperty("locale"))) {
+                registered.countDown();
+            }
+        });
+        return registered;
+    }
+
+    private void awaitSlowQueries() {
+        CountDownLatch latch = slowQueries;
+        if (latch != null && Thread.currentThread() != testThread) {
+            blockedQuery.countDown();
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    protected JcrResourceBundleProvider activateProvider(Map<String, Object> properties) {
+        Map<String, Object> config = new HashMap<>(properties);
+        config.put("locale.default", "en");
+        config.put("included.paths", new String[] {"/libs", "/apps"});
+        config.put("excluded.paths", new String[] {"/var/eventing"});
+        // run the reloads triggered by the scheduler on the calling thread
+        config.putIfAbsent("reload.threads", 0);
+
+        Scheduler scheduler = Mockito.mock(Scheduler.class);
+        Mockito.when(scheduler.NOW()).thenReturn(Mockito.mock(ScheduleOptions.class));
+        Mockito.when(scheduler.AT(Mockito.any())).thenReturn(Mockito.mock(ScheduleOptions.class));
+        Mockito.when(scheduler.AT(Mockito.any(), Mockito.anyInt(), Mockito.anyLong()))
+                .thenReturn(Mockito.mock(ScheduleOptions.class));
+        context.registerService(Scheduler.class, scheduler);
+        context.registerService(ServiceUserMapped.class, Mockito.mock(ServiceUserMapped.class));
+
+        // the query returns all resources having a jcr:language property
+        MockFindQueryResources.addFindResourceHandler(context.resourceResolver(), (query, language) -> {
+            awaitSlowQueries();
+            return languageRoots().iterator();
+        });
+        MockFindQueryResources.addQueryResourceHandler(context.resourceResolver(), (query, language) -> {
+            awaitSlowQueries();
+            return languageRoots().stream()
+                    .map(resource -> {
+                        Map<String, Object> row = new HashMap<>(resource.getValueMap());
+                        row.put("jcr:path", resource.getPath());
+                        return (Map<String, Object>) row;
+                    })
+                    .iterator();
+        });
+
+        return context.registerInjectActivateService(JcrResourceBundleProvider.class, config);
+    }
+
+    private List<Resource> languageRoots() {
+        List<Resource> roots = new ArrayList<>();
+        Resource i18n = context.resourceResolver().getResource("/libs/i18n");
+        if (i18n != null) {
+            for (Resource child : i18n.getChildren()) {
+                if (child.getValueMap().containsKey("jcr:language")) {
+                    roots.add(child);
+                }
+            }
+        }
+        return roots;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AccessProfileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Key german = new Key(null, Locale.GERMAN);
+
+    private final Key french = new Key(null, Locale.FRENCH);
+
+    private final Key germanApp = new Key("app", Locale.GERMAN);
+
+    @Test
+    public void testHottestFirst() {
+        AccessProfile profile = new AccessProfile();
+        record(profile, french, 2);
+        record(profile, german, 5);
+        record(profile, germanApp, 1);
+
+        Assert.assertEquals(Arrays.asList(german, french, germanApp), profile.getHottest(10));
+        Assert.assertEquals(Arrays.asList(german, french), profile.getHottest(2));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        AccessProfile profile = new AccessProfile();
+        record(profile, german, 10);
+        record(profile, germanApp, 4);
+        record(profile, french, 1);
+
+        File file = new File(folder.getRoot(), "profile.properties");
+        profile.save(file);
+
+        // counts are halved on load, so keys requested once fade out
+        AccessProfile loaded = new AccessProfile();
+        loaded.load(file);
+        Assert.assertEquals(2, loaded.size());
+        Assert.assertEquals(5, loaded.getCount(german));
+        Assert.assertEquals(2, loaded.getCount(germanApp));
+        Assert.assertEquals(0, loaded.getCount(french));
+    }
+
+    @Test
+    public void testKeysAreLimited() {
+        AccessProfile profile = new AccessProfile();
+        record(profile, german, 3);
+        for (int i = 0; i < 2 * AccessProfile.MAX_KEYS; i++) {
+            profile.record(new Key("basename" + i, Locale.GERMAN));
+            Assert.assertTrue(profile.size() <= AccessProfile.MAX_KEYS);
+        }
+
+        // the coldest keys make room for new ones, frequently requested keys are kept
+        Assert.assertEquals(1, profile.getCount(new Key("basename" + (2 * AccessProfile.MAX_KEYS - 1), Locale.GERMAN)));
+        Assert.assertEquals(3, profile.getCount(german));
+    }
+
+    private static void record(AccessProfile profile, Key key, int times) {
+        for (int i = 0; i < times; i++) {
+            profile.record(key);
+        }
+    }
+}
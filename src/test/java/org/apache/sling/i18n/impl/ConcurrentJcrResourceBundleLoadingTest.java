@@ -52,6 +52,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 
@@ -104,6 +105,8 @@ public class ConcurrentJcrResourceBundleLoadingTest {
         configMap.put("included.paths", new String[] {"/libs", "/apps"});
         configMap.put("excluded.paths", new String[] {"/var/eventing"});
         provider = context.registerInjectActivateService(JcrResourceBundleProvider.class, configMap);
+        // the reload of all bundles on activation runs on the reload threads
+        assertTrue(provider.awaitReloads(5, TimeUnit.SECONDS));
     }
 
     @Test
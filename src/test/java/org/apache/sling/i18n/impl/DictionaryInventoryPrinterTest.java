@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.apache.felix.inventory.Format;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DictionaryInventoryPrinterTest extends AbstractJcrResourceBundleProviderTest {
+
+    @Test
+    public void testDictionaryInventoryPrinter() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        provider.getResourceBundle(Locale.GERMAN);
+
+        DictionaryInventoryPrinter printer = context.registerInjectActivateService(DictionaryInventoryPrinter.class);
+        StringWriter writer = new StringWriter();
+        printer.print(new PrintWriter(writer), Format.TEXT, false);
+        String inventory = writer.toString();
+        Assert.assertTrue(inventory, inventory.contains("Cached resource bundles: 2, loaded dictionaries: 1"));
+        Assert.assertTrue(inventory, inventory.contains("/libs/i18n/de"));
+    }
+}
@@ -19,6 +19,8 @@
 package org.apache.sling.i18n.impl;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
 import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.servlet.FilterChain;
@@ -35,6 +37,7 @@ import org.apache.sling.i18n.DefaultJakartaLocaleResolver;
 import org.apache.sling.i18n.JakartaRequestLocaleResolver;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.osgi.framework.Constants;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
@@ -90,6 +93,30 @@ public class I18NFilterTest {
         assertSame(request, ((HttpServletRequestWrapper) invokedRequest).getRequest());
     }
 
+    @Test
+    public void testDoFilterPrefetchesResourceBundle() throws Exception {
+        JcrResourceBundleProvider provider = Mockito.mock(JcrResourceBundleProvider.class);
+        filter.bindResourceBundleProvider(provider, Collections.singletonMap(Constants.SERVICE_ID, 1L));
+
+        I18NFilter.Config config = Mockito.mock(I18NFilter.Config.class);
+        Mockito.when(config.prefetch_enabled()).thenReturn(true);
+        filter.activate(config);
+
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getLocales())
+                .thenReturn(Collections.enumeration(Collections.singletonList(Locale.GERMAN)));
+        FilterChain chain = Mockito.mock(FilterChain.class);
+        Mockito.doAnswer(invocation -> {
+                    // the load started before the request asked for the bundle
+                    Mockito.verify(provider).prefetch(null, Locale.GERMAN);
+                    return null;
+                })
+                .when(chain)
+                .doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        filter.doFilter(request, Mockito.mock(HttpServletResponse.class), chain);
+        Mockito.verify(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
     /**
      * Test method for {@link org.apache.sling.i18n.impl.I18NFilter#bindLocaleResolver(org.apache.sling.i18n.LocaleResolver)}.
      * @deprecated use {@link #testBindJakartaRequestLocaleResolver()} instead
@@ -18,17 +18,15 @@
  */
 package org.apache.sling.i18n.impl;
 
+import java.util.Collections;
 import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.CountDownLatch;
 
-import org.apache.sling.testing.mock.sling.junit.SlingContext;
 import org.junit.Assert;
-import org.junit.Rule;
 import org.junit.Test;
 
-public class JcrResourceBundleProviderTest {
-
-    @Rule
-    public final SlingContext context = new SlingContext();
+public class JcrResourceBundleProviderTest extends AbstractJcrResourceBundleProviderTest {
 
     @Test
     public void testToLocale() {
@@ -239,4 +237,126 @@ public class JcrResourceBundleProviderTest {
         // The parent of the default locale is null
         Assert.assertNull(provider.getParentLocale(provider.getDefaultLocale()));
     }
+
+    @Test
+    public void testSupportedLocalesOnly() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/en", "en", "kitchen", "kitchen");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("supported.locales.only", true));
+
+        ResourceBundle german = provider.getResourceBundle(Locale.GERMAN);
+        Assert.assertEquals(Locale.GERMAN, german.getLocale());
+        Assert.assertEquals(0, provider.getRedirectedRequests());
+
+        // no dictionaries for de_AT and fr, so the nearest supported parent is used
+        Assert.assertSame(german, provider.getResourceBundle(new Locale("de", "AT")));
+        Assert.assertSame(provider.getResourceBundle(Locale.ENGLISH), provider.getResourceBundle(Locale.FRENCH));
+        Assert.assertEquals(
+                "Küche", provider.getResourceBundle(new Locale("de", "AT")).getString("kitchen"));
+        Assert.assertEquals(3, provider.getRedirectedRequests());
+    }
+
+    @Test
+    public void testSupportedLocalesPerBaseName() {
+        createDictionary("/libs/i18n/en", "en", "kitchen", "kitchen");
+        context.build()
+                .resource(
+                        "/libs/i18n/de", "jcr:language", "de", "sling:basename", "app", "jcr:mixinTypes", new String[] {
+                            "mix:language"
+                        })
+                .resource("kitchen", "sling:message", "Küche")
+                .commit();
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("supported.locales.only", true));
+
+        // the german dictionary only provides the base name app
+        Assert.assertEquals(
+                Locale.GERMAN, provider.getResourceBundle("app", Locale.GERMAN).getLocale());
+        Assert.assertEquals(
+                Locale.ENGLISH,
+                provider.getResourceBundle("other", Locale.GERMAN).getLocale());
+        Assert.assertEquals(
+                Locale.GERMAN, provider.getResourceBundle(null, Locale.GERMAN).getLocale());
+        Assert.assertEquals(1, provider.getRedirectedRequests());
+    }
+
+    @Test
+    public void testAllLocalesByDefault() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+
+        ResourceBundle austrian = provider.getResourceBundle(new Locale("de", "AT"));
+        Assert.assertEquals(new Locale("de", "AT"), austrian.getLocale());
+        Assert.assertNotSame(provider.getResourceBundle(Locale.GERMAN), austrian);
+        Assert.assertEquals(0, provider.getRedirectedRequests());
+    }
+
+    @Test
+    public void testEmptyBundlesAreAliases() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/de_AT_vienna", "de_AT_vienna", "fork", "Gabel");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+
+        JcrResourceBundle vienna = (JcrResourceBundle) provider.getResourceBundle(new Locale("de", "AT", "vienna"));
+        JcrResourceBundle austrian = (JcrResourceBundle) provider.getResourceBundle(new Locale("de", "AT"));
+        JcrResourceBundle german = (JcrResourceBundle) provider.getResourceBundle(Locale.GERMAN);
+
+        // de_AT has no dictionaries: it reports its own locale but is not registered as a service
+        Assert.assertTrue(austrian.isAlias());
+        Assert.assertEquals(new Locale("de", "AT"), austrian.getLocale());
+        Assert.assertSame(german, austrian.getParent());
+        Assert.assertEquals("Küche", austrian.getString("kitchen"));
+        Assert.assertEquals(0, context.getServices(ResourceBundle.class, "(locale=de_AT)").length);
+        Assert.assertEquals(1, context.getServices(ResourceBundle.class, "(locale=de)").length);
+
+        // lookups of de_AT_vienna skip the empty de_AT bundle
+        Assert.assertFalse(vienna.isAlias());
+        Assert.assertSame(german, vienna.getParent());
+        Assert.assertEquals("Küche", vienna.getString("kitchen"));
+        Assert.assertEquals("Gabel", vienna.getString("fork"));
+
+        // reloading the alias also reloads the bundles skipping it
+        provider.reloadBundle(new JcrResourceBundleProvider.Key(null, new Locale("de", "AT")));
+        Assert.assertNotSame(vienna, provider.getResourceBundle(new Locale("de", "AT", "vienna")));
+    }
+
+    @Test
+    public void testLoadTimeoutFallsBackToParent() {
+        createDictionary("/libs/i18n/en", "en", "kitchen", "kitchen");
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("load.timeout", 500L));
+        ResourceBundle english = provider.getResourceBundle(Locale.ENGLISH);
+        Assert.assertEquals("kitchen", english.getString("kitchen"));
+
+        // the slow load of german continues in the background
+        slowQueries = new CountDownLatch(1);
+        Assert.assertSame(english, provider.getResourceBundle(Locale.GERMAN));
+        Assert.assertEquals(1, provider.getStatistics().getLoadFallbacks());
+
+        // the next request waits for the load started by the first one
+        slowQueries.countDown();
+        Assert.assertEquals("Küche", provider.getResourceBundle(Locale.GERMAN).getString("kitchen"));
+        Assert.assertEquals(1, provider.getStatistics().getLoadFallbacks());
+    }
+
+    @Test
+    public void testPrefetchOfRedirectedLocale() throws Exception {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("supported.locales.only", true));
+        Locale austrian = new Locale("de", "AT");
+        Assert.assertFalse(provider.isCached(null, austrian));
+        provider.getResourceBundle(austrian);
+        long loads = provider.getStatistics().getLoads();
+
+        // de_AT is served by the cached bundle of de, so nothing is loaded again
+        Assert.assertTrue(provider.isCached(null, austrian));
+        provider.prefetch(null, austrian);
+        Assert.assertEquals(loads, provider.getStatistics().getLoads());
+        Assert.assertFalse(cachedLocales(provider).contains(austrian));
+    }
 }
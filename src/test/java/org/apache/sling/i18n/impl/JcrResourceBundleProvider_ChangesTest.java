@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.commons.scheduler.Scheduler;
+import org.apache.sling.i18n.ResourceBundleChange;
+import org.apache.sling.i18n.ResourceBundleChangeListener;
+import org.apache.sling.testing.mock.osgi.MockOsgi;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the handling of resource changes and the notification of the change listeners.
+ */
+public class JcrResourceBundleProvider_ChangesTest extends AbstractJcrResourceBundleProviderTest {
+
+    @Test
+    public void testListenerPaths() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        Assert.assertArrayEquals(new String[] {"/apps", "/libs"}, listenerPaths());
+        MockOsgi.deactivate(provider, context.bundleContext());
+        Assert.assertNull(context.bundleContext().getServiceReference(ResourceChangeListener.class));
+
+        provider =
+                activateProvider(Collections.singletonMap("dictionary.paths", new String[] {"glob:/apps/**/*.json"}));
+        Assert.assertArrayEquals(new String[] {"glob:/apps/**/*.json"}, listenerPaths());
+        provider.getResourceBundle(Locale.GERMAN);
+        Assert.assertArrayEquals(new String[] {"/libs/i18n/de", "glob:/apps/**/*.json"}, listenerPaths());
+        provider.registerLocatorPaths(Collections.singleton(new LocatorPaths("/apps/app1", 2, 1)));
+        Assert.assertArrayEquals(new String[] {"/apps/app1", "/libs/i18n/de", "glob:/apps/**/*.json"}, listenerPaths());
+    }
+
+    private String[] listenerPaths() {
+        ServiceReference<ResourceChangeListener> reference =
+                context.bundleContext().getServiceReference(ResourceChangeListener.class);
+        return (String[]) reference.getProperty(ResourceChangeListener.PATHS);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testTargetedReloads() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        Scheduler scheduler = context.getService(Scheduler.class);
+        provider.getResourceBundle(Locale.GERMAN);
+        provider.getResourceBundle(Locale.FRENCH);
+        provider.getResourceBundle(new Locale("de", "AT"));
+        int pendingJobs = provider.getPendingReloadJobs();
+
+        // saving the language root only reloads the bundles using it
+        provider.onChange(Collections.singletonList(new ResourceChange(
+                ChangeType.CHANGED,
+                "/libs/i18n/de",
+                false,
+                Collections.emptySet(),
+                Collections.singleton("jcr:lastModified"),
+                Collections.emptySet())));
+        Assert.assertEquals(pendingJobs + 1, provider.getPendingReloadJobs());
+
+        // a new dictionary for german reloads german and its child locales only
+        context.build()
+                .resource("/libs/i18n/de2", "jcr:language", "de")
+                .resource("fork", "sling:message", "Gabel", "jcr:mixinTypes", new String[] {"sling:Message"})
+                .commit();
+        ArgumentCaptor<Runnable> jobs = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.clearInvocations(scheduler);
+        provider.onChange(
+                Collections.singletonList(new ResourceChange(ChangeType.ADDED, "/libs/i18n/de2/fork", false)));
+        Mockito.verify(scheduler).schedule(jobs.capture(), Mockito.any());
+        jobs.getValue().run();
+        Assert.assertEquals(
+                Arrays.asList(Locale.FRENCH),
+                cachedLocales(provider).stream()
+                        .filter(l -> !l.equals(Locale.ENGLISH))
+                        .collect(Collectors.toList()));
+        Assert.assertEquals("Gabel", provider.getResourceBundle(Locale.GERMAN).getString("fork"));
+        Assert.assertEquals(1, provider.getStatistics().getChangeBatches());
+    }
+
+    @Test
+    public void testExternalChangesAreStaggered() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("external.invalidation.delay", 20000L);
+        properties.put("external.stagger", 1000L);
+        properties.put("external.reload.loaded.only", true);
+        JcrResourceBundleProvider provider = activateProvider(properties);
+        Scheduler scheduler = context.getService(Scheduler.class);
+        provider.getResourceBundle(Locale.GERMAN);
+        provider.getResourceBundle(Locale.FRENCH);
+
+        // a message without language root on another instance requires all bundles to be reloaded
+        context.build()
+                .resource("/libs/misc/fork", "sling:message", "Gabel", "jcr:mixinTypes", new String[] {"sling:Message"})
+                .commit();
+        Mockito.clearInvocations(scheduler);
+        long start = System.currentTimeMillis();
+        provider.onChange(Collections.singletonList(new ResourceChange(ChangeType.ADDED, "/libs/misc/fork", true)));
+        long end = System.currentTimeMillis();
+
+        ArgumentCaptor<Date> due = ArgumentCaptor.forClass(Date.class);
+        Mockito.verify(scheduler).AT(due.capture());
+        Assert.assertTrue(due.getValue().getTime() >= start + 20000);
+        Assert.assertTrue(due.getValue().getTime() <= end + 21000);
+
+        // changes requiring all bundles to be reloaded are not narrowed to the loaded bundles
+        ArgumentCaptor<Runnable> jobs = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(jobs.capture(), Mockito.any());
+        jobs.getValue().run();
+        Assert.assertEquals(1, provider.getStatistics().getReloadAllCount());
+
+        // other changes only reload the changed bundles loaded here
+        ResourceBundle french = provider.getResourceBundle(Locale.FRENCH);
+        context.build().resource("/libs/i18n/de/fork", "sling:message", "Gabel").commit();
+        Mockito.clearInvocations(scheduler);
+        provider.onChange(Collections.singletonList(new ResourceChange(ChangeType.ADDED, "/libs/i18n/de/fork", true)));
+        Mockito.verify(scheduler).schedule(jobs.capture(), Mockito.any());
+        jobs.getValue().run();
+        Assert.assertEquals(1, provider.getStatistics().getReloadAllCount());
+        Assert.assertSame(french, provider.getResourceBundle(Locale.FRENCH));
+        Assert.assertEquals("Gabel", provider.getResourceBundle(Locale.GERMAN).getString("fork"));
+    }
+
+    @Test
+    public void testExternalChangesOfUnloadedBundlesAreNotPending() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        JcrResourceBundleProvider provider =
+                activateProvider(Collections.singletonMap("external.reload.loaded.only", true));
+        Scheduler scheduler = context.getService(Scheduler.class);
+        provider.getResourceBundle(Locale.GERMAN);
+
+        Mockito.clearInvocations(scheduler);
+        provider.onChange(Collections.singletonList(new ResourceChange(ChangeType.ADDED, "/libs/i18n/de/fork", true)));
+        ArgumentCaptor<Runnable> jobs = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(jobs.capture(), Mockito.any());
+
+        // the changed bundle is dropped before the job runs, so nothing is reloaded
+        provider.clearCache();
+        jobs.getValue().run();
+        Assert.assertEquals(0, provider.getChangesPendingSince());
+        Assert.assertEquals(0, provider.getStatistics().getChangeBatches());
+    }
+
+    @Test
+    public void testExternalChangesUseInvalidationDelayByDefault() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("invalidation.delay", 3000L));
+        Scheduler scheduler = context.getService(Scheduler.class);
+        provider.getResourceBundle(Locale.GERMAN);
+
+        Mockito.clearInvocations(scheduler);
+        long start = System.currentTimeMillis();
+        provider.onChange(Collections.singletonList(new ResourceChange(ChangeType.ADDED, "/libs/i18n/de/fork", true)));
+        long end = System.currentTimeMillis();
+
+        ArgumentCaptor<Date> due = ArgumentCaptor.forClass(Date.class);
+        Mockito.verify(scheduler).AT(due.capture());
+        Assert.assertTrue(due.getValue().getTime() >= start + 3000);
+        Assert.assertTrue(due.getValue().getTime() <= end + 3000);
+    }
+
+    @Test
+    public void testChangeListenersReceiveChangedKeys() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+        List<ResourceBundleChange> changes = new ArrayList<>();
+        List<Long> generations = new ArrayList<>();
+        context.registerService(ResourceBundleChangeListener.class, (generation, changed) -> {
+            generations.add(generation);
+            changes.addAll(changed);
+        });
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("preload.bundles", true));
+        provider.getResourceBundle(new Locale("de", "AT"));
+        provider.getResourceBundle(Locale.FRENCH);
+
+        // the preloaded bundles are reloaded at once and compared with the previous ones
+        context.build().resource("/libs/i18n/de/fork", "sling:message", "Gabel").commit();
+        provider.reloadBundle(new JcrResourceBundleProvider.Key(null, Locale.GERMAN));
+        Assert.assertEquals(Collections.singletonList(1L), generations);
+        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals(Locale.GERMAN, changes.get(0).getLocale());
+        Assert.assertNull(changes.get(0).getBaseName());
+        Assert.assertEquals(Collections.singleton("fork"), changes.get(0).getChangedKeys());
+        Assert.assertEquals(new Locale("de", "AT"), changes.get(1).getLocale());
+        Assert.assertEquals(Collections.singleton("fork"), changes.get(1).getChangedKeys());
+
+        // unchanged bundles are not reported, dropped ones without their changed keys
+        changes.clear();
+        provider.clearCache();
+        Assert.assertEquals(Arrays.asList(1L, 2L), generations);
+        Assert.assertEquals(4, changes.size());
+        Assert.assertNull(changes.get(0).getChangedKeys());
+        provider.reloadBundle(new JcrResourceBundleProvider.Key(null, Locale.FRENCH));
+        Assert.assertEquals(2, generations.size());
+    }
+
+    @Test
+    public void testChangeListenersReceiveParentChangesOnRebuild() {
+        createDictionary("/libs/i18n/en", "en", "kitchen", "kitchen");
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+        createDictionary("/libs/i18n/it", "it", "kitchen", "cucina");
+        List<ResourceBundleChange> changes = new ArrayList<>();
+        context.registerService(ResourceBundleChangeListener.class, (generation, changed) -> changes.addAll(changed));
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        for (Locale locale : Arrays.asList(Locale.ITALIAN, Locale.FRENCH, Locale.GERMAN, Locale.ENGLISH)) {
+            provider.getResourceBundle(locale);
+        }
+
+        // the default locale and another language change in the same rebuild
+        context.build()
+                .resource("/libs/i18n/en/spoon", "sling:message", "spoon")
+                .commit();
+        context.build().resource("/libs/i18n/de/fork", "sling:message", "Gabel").commit();
+        provider.reloadAllBundles();
+
+        Assert.assertEquals(4, changes.size());
+        Assert.assertEquals(Locale.ENGLISH, changes.get(0).getLocale());
+        Assert.assertEquals(Collections.singleton("spoon"), changes.get(0).getChangedKeys());
+        for (ResourceBundleChange change : changes.subList(1, changes.size())) {
+            Set<String> expected = new HashSet<>(Collections.singleton("spoon"));
+            if (Locale.GERMAN.equals(change.getLocale())) {
+                expected.add("fork");
+            }
+            Assert.assertEquals(change.getLocale().toString(), expected, change.getChangedKeys());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.i18n.ResourceBundlePreloadStatus;
+import org.apache.sling.testing.mock.osgi.MockOsgi;
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the preloading and the warmup of resource bundles.
+ */
+public class JcrResourceBundleProvider_PreloadTest extends AbstractJcrResourceBundleProviderTest {
+
+    @Test
+    public void testPreloadPatterns() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/de_AT", "de_AT", "kitchen", "Kuchl");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("preload.bundles", true);
+        config.put("preload.locales", new String[] {"de*"});
+        config.put("preload.locales.excluded", new String[] {"de_AT"});
+        JcrResourceBundleProvider provider = activateProvider(config);
+
+        provider.reloadAllBundles();
+        Assert.assertTrue(cachedLocales(provider).contains(Locale.GERMAN));
+        Assert.assertFalse(cachedLocales(provider).contains(new Locale("de", "AT")));
+        Assert.assertFalse(cachedLocales(provider).contains(Locale.FRENCH));
+        Assert.assertEquals(1, context.getServices(ResourceBundle.class, "(&(locale=de)(preloaded=true))").length);
+
+        // bundles not matching the patterns are loaded on demand
+        provider.getResourceBundle(Locale.FRENCH);
+        Assert.assertEquals(1, context.getServices(ResourceBundle.class, "(&(locale=fr)(preloaded=false))").length);
+    }
+
+    @Test
+    public void testTieredPreload() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/en", "en", "kitchen", "kitchen");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("preload.bundles", true);
+        config.put("preload.priority.locales", new String[] {"fr"});
+        JcrResourceBundleProvider provider = activateProvider(config);
+
+        ServiceReference<ResourceBundlePreloadStatus> status =
+                context.bundleContext().getServiceReference(ResourceBundlePreloadStatus.class);
+        Assert.assertArrayEquals(
+                new String[0], (String[]) status.getProperty(ResourceBundlePreloadStatus.PROP_COMPLETED_TIERS));
+
+        provider.reloadAllBundles();
+        Assert.assertArrayEquals(
+                new String[] {
+                    ResourceBundlePreloadStatus.TIER_DEFAULT,
+                    ResourceBundlePreloadStatus.TIER_PRIORITY,
+                    ResourceBundlePreloadStatus.TIER_ALL
+                },
+                (String[]) status.getProperty(ResourceBundlePreloadStatus.PROP_COMPLETED_TIERS));
+        Assert.assertEquals(
+                ResourceBundlePreloadStatus.TIER_ALL, status.getProperty(ResourceBundlePreloadStatus.PROP_TIER));
+        Assert.assertEquals(3, provider.getCachedResourceBundles().size());
+    }
+
+    @Test
+    public void testDefaultTierContainsDefaultLanguage() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("preload.priority.locales", new String[] {"fr*"});
+        JcrResourceBundleProvider provider = activateProvider(config);
+
+        Assert.assertEquals(
+                ResourceBundlePreloadStatus.TIER_DEFAULT,
+                provider.getPreloadTier(new JcrResourceBundleProvider.Key(null, Locale.ENGLISH)));
+        Assert.assertEquals(
+                ResourceBundlePreloadStatus.TIER_DEFAULT,
+                provider.getPreloadTier(new JcrResourceBundleProvider.Key("apps", Locale.US)));
+        Assert.assertEquals(
+                ResourceBundlePreloadStatus.TIER_PRIORITY,
+                provider.getPreloadTier(new JcrResourceBundleProvider.Key(null, Locale.CANADA_FRENCH)));
+        Assert.assertEquals(
+                ResourceBundlePreloadStatus.TIER_ALL,
+                provider.getPreloadTier(new JcrResourceBundleProvider.Key(null, Locale.GERMAN)));
+    }
+
+    @Test
+    public void testPreloadStatusAfterBundlesLoadedOnDemand() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        ServiceReference<ResourceBundlePreloadStatus> status =
+                context.bundleContext().getServiceReference(ResourceBundlePreloadStatus.class);
+
+        // a request loads a bundle before the reload scheduled on activation runs
+        provider.getResourceBundle(Locale.GERMAN);
+        provider.reloadAllBundles();
+        Assert.assertArrayEquals(
+                new String[] {
+                    ResourceBundlePreloadStatus.TIER_DEFAULT,
+                    ResourceBundlePreloadStatus.TIER_PRIORITY,
+                    ResourceBundlePreloadStatus.TIER_ALL
+                },
+                (String[]) status.getProperty(ResourceBundlePreloadStatus.PROP_COMPLETED_TIERS));
+    }
+
+    @Test
+    public void testWarmupOfHotKeys() throws Exception {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("warmup.hot.keys", 1));
+        for (int i = 0; i < 3; i++) {
+            provider.getResourceBundle(Locale.GERMAN);
+        }
+        provider.getResourceBundle(Locale.FRENCH);
+
+        // only the hottest key is loaded again after all bundles have been invalidated
+        CountDownLatch german = registration(Locale.GERMAN);
+        provider.clearCache();
+        provider.reloadAllBundles();
+        Assert.assertTrue(german.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, context.getServices(ResourceBundle.class, "(locale=fr)").length);
+
+        // the profile is saved on deactivation
+        MockOsgi.deactivate(provider, context.bundleContext());
+        AccessProfile profile = new AccessProfile();
+        profile.load(context.bundleContext().getDataFile(JcrResourceBundleProvider.ACCESS_PROFILE_FILE));
+        Assert.assertEquals(1, profile.getCount(new JcrResourceBundleProvider.Key(null, Locale.GERMAN)));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.framework.ServiceEvent;
+
+/**
+ * Tests the reloads of the resource bundles and the generations published by them.
+ */
+public class JcrResourceBundleProvider_ReloadTest extends AbstractJcrResourceBundleProviderTest {
+
+    @Test
+    public void testReloadAllPublishesNewGeneration() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        ResourceBundle german = provider.getResourceBundle(Locale.GERMAN);
+        ResourceBundle french = provider.getResourceBundle(Locale.FRENCH);
+        int services = context.getServices(ResourceBundle.class, null).length;
+
+        // record the number of services whenever one of them goes away
+        List<Integer> remaining = new ArrayList<>();
+        context.bundleContext().addServiceListener(event -> {
+            if (event.getType() == ServiceEvent.UNREGISTERING) {
+                remaining.add(context.getServices(ResourceBundle.class, null).length);
+            }
+        });
+        context.resourceResolver()
+                .getResource("/libs/i18n/de/kitchen")
+                .adaptTo(ModifiableValueMap.class)
+                .put("sling:message", "Kochnische");
+        provider.reloadAllBundles();
+
+        // the old bundles are only unregistered after the new ones have been registered
+        Assert.assertEquals(services, remaining.size());
+        for (int count : remaining) {
+            Assert.assertTrue("Services of the new generation missing: " + remaining, count >= services);
+        }
+        Assert.assertEquals(services, context.getServices(ResourceBundle.class, null).length);
+        Assert.assertNotSame(german, provider.getResourceBundle(Locale.GERMAN));
+        Assert.assertNotSame(french, provider.getResourceBundle(Locale.FRENCH));
+        Assert.assertEquals(
+                "Kochnische", provider.getResourceBundle(Locale.GERMAN).getString("kitchen"));
+        Assert.assertEquals(2, provider.getLanguageRootPathsCount());
+    }
+
+    @Test
+    public void testReloadCascadesOncePerBundle() throws Exception {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        ResourceBundleProviderMBean mbean = context.getService(ResourceBundleProviderMBean.class);
+        ResourceBundle austrian = provider.getResourceBundle(new Locale("de", "AT"));
+        ResourceBundle french = provider.getResourceBundle(Locale.FRENCH);
+
+        // de_AT depends on de which depends on en, as does fr: each of them is reloaded once
+        context.build().resource("/libs/i18n/de/fork", "sling:message", "Gabel").commit();
+        provider.reloadBundles(Arrays.asList(
+                new JcrResourceBundleProvider.Key(null, Locale.ENGLISH),
+                new JcrResourceBundleProvider.Key(null, Locale.GERMAN)));
+        Assert.assertEquals(4, mbean.getBundleReloadCount());
+        Assert.assertNotSame(austrian, provider.getResourceBundle(new Locale("de", "AT")));
+        Assert.assertNotSame(french, provider.getResourceBundle(Locale.FRENCH));
+        Assert.assertEquals(
+                "Gabel", provider.getResourceBundle(new Locale("de", "AT")).getString("fork"));
+    }
+
+    @Test
+    public void testBundlesLoadedDuringRebuildAreKept() throws Exception {
+        createDictionary("/libs/i18n/en", "en", "spoon", "spoon");
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        ResourceBundle german = provider.getResourceBundle(Locale.GERMAN);
+
+        // french is requested while the new generation is built without it
+        slowQueries = new CountDownLatch(1);
+        Thread reload = new Thread(provider::reloadAllBundles);
+        reload.start();
+        Assert.assertTrue(blockedQuery.await(5, TimeUnit.SECONDS));
+        ResourceBundle apps = provider.getResourceBundle("apps", Locale.FRENCH);
+        Assert.assertEquals("spoon", provider.getResourceBundle(Locale.FRENCH).getString("spoon"));
+        context.resourceResolver()
+                .getResource("/libs/i18n/en/spoon")
+                .adaptTo(ModifiableValueMap.class)
+                .put("sling:message", "teaspoon");
+        context.resourceResolver().commit();
+
+        slowQueries.countDown();
+        reload.join(5000);
+        Assert.assertNotSame(german, provider.getResourceBundle(Locale.GERMAN));
+        // the bundle of a parent not rebuilt is taken over as is
+        Assert.assertSame(apps, provider.getResourceBundle("apps", Locale.FRENCH));
+        // the bundle of a rebuilt parent refers to the new parent
+        Assert.assertEquals(
+                "teaspoon", provider.getResourceBundle(Locale.FRENCH).getString("spoon"));
+        Assert.assertEquals("cuisine", provider.getResourceBundle(Locale.FRENCH).getString("kitchen"));
+    }
+
+    @Test
+    public void testLocatorPathsReloadAffectedBundlesOnly() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+        createDictionary("/libs/i18n/fr", "fr", "kitchen", "cuisine");
+        createDictionary("/apps/app1/i18n/de", "de", "fork", "Gabel");
+
+        JcrResourceBundleProvider provider =
+                activateProvider(Collections.singletonMap("locator.paths.batch.delay", 0L));
+        ResourceBundle german = provider.getResourceBundle(Locale.GERMAN);
+        ResourceBundle french = provider.getResourceBundle(Locale.FRENCH);
+        Assert.assertEquals("fork", german.getString("fork"));
+
+        Set<LocatorPaths> locators = Collections.singleton(new LocatorPaths("/apps/app1", 2, 1));
+        provider.registerLocatorPaths(locators);
+        Assert.assertEquals("Gabel", provider.getResourceBundle(Locale.GERMAN).getString("fork"));
+        Assert.assertSame(french, provider.getResourceBundle(Locale.FRENCH));
+
+        german = provider.getResourceBundle(Locale.GERMAN);
+        provider.unregisterLocatorPaths(locators);
+        Assert.assertNotSame(german, provider.getResourceBundle(Locale.GERMAN));
+        Assert.assertEquals("fork", provider.getResourceBundle(Locale.GERMAN).getString("fork"));
+        Assert.assertSame(french, provider.getResourceBundle(Locale.FRENCH));
+    }
+}
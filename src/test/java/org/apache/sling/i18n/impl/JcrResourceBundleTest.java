@@ -30,13 +30,17 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.i18n.MessageFormatter;
 import org.apache.sling.testing.mock.jcr.MockJcr;
 import org.apache.sling.testing.mock.jcr.MockQueryResult;
 import org.apache.sling.testing.mock.sling.ResourceResolverType;
@@ -46,6 +50,8 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -264,6 +270,26 @@ public class JcrResourceBundleTest {
         assertEquals("missing", bundle.getString("missing"));
     }
 
+    @Test
+    public void test_getMessageFormat() throws Exception {
+        Node de = getSession().getRootNode().getNode("libs/i18n/de");
+        new Message("", "forks", "{0,number,integer} Gabeln", false).add(de);
+        getSession().save();
+
+        JcrResourceBundle bundle = new JcrResourceBundle(new Locale("de"), null, resolver, null, new PathFilter());
+        bundle.setParent(new RootResourceBundle());
+
+        CachedMessageFormat format = bundle.getMessageFormat("forks");
+        assertEquals("1.000 Gabeln", format.format(1000));
+        MessageFormatter formatter = bundle;
+        assertEquals("2 Gabeln", formatter.format("forks", 2));
+        assertSame(format, bundle.getMessageFormat("forks"));
+
+        // missing keys are formatted with the key as pattern, but not cached
+        assertEquals("missing 3", bundle.format("missing {0}", 3));
+        assertNotSame(bundle.getMessageFormat("missing {0}"), bundle.getMessageFormat("missing {0}"));
+    }
+
     @Test
     public void test_getKeys() {
         JcrResourceBundle bundle = new JcrResourceBundle(new Locale("de"), null, resolver, null, new PathFilter());
@@ -290,6 +316,62 @@ public class JcrResourceBundleTest {
         assertEquals("missing", bundle.getString("missing"));
     }
 
+    @Test
+    public void test_missing_key_sampled_once() {
+        final List<Locale> recorded = new ArrayList<>();
+        final int[] samples = new int[1];
+        final MissingKeyRecorder recorder = new MissingKeyRecorder(2) {
+            @Override
+            boolean sample() {
+                // skips the first lookup only
+                return samples[0]++ > 0;
+            }
+
+            @Override
+            void record(Locale locale, String key) {
+                recorded.add(locale);
+            }
+        };
+        JcrResourceBundle bundle = new JcrResourceBundle(new Locale("de"), null, resolver, null, new PathFilter());
+        JcrResourceBundle parentBundle =
+                new JcrResourceBundle(new Locale("en"), null, resolver, null, new PathFilter());
+        bundle.setParent(parentBundle);
+        parentBundle.setParent(new RootResourceBundle(recorder));
+
+        // a lookup missing in the whole hierarchy is sampled once, not again by the parents
+        assertEquals("missing", bundle.getString("missing"));
+        assertEquals(1, samples[0]);
+        assertTrue(recorded.isEmpty());
+
+        // and recorded for the locale the lookup started with
+        assertEquals("missing", bundle.getString("missing"));
+        assertEquals(2, samples[0]);
+        assertEquals(Collections.singletonList(new Locale("de")), recorded);
+
+        // keys found in a parent are not sampled
+        assertEquals(PARENT_MSG.message, bundle.getObject(PARENT_MSG.key));
+        assertEquals(2, samples[0]);
+    }
+
+    @Test
+    public void test_keySet() {
+        JcrResourceBundle bundle = new JcrResourceBundle(new Locale("de"), null, resolver, null, new PathFilter());
+        JcrResourceBundle parentBundle =
+                new JcrResourceBundle(new Locale("en"), null, resolver, null, new PathFilter());
+        bundle.setParent(parentBundle);
+        parentBundle.setParent(new RootResourceBundle());
+
+        Set<String> keys = bundle.keySet();
+        assertEquals(MESSAGES_DE.size() + MESSAGES_EN.size(), keys.size());
+        assertTrue(keys.containsAll(MESSAGES_DE.keySet()));
+        assertTrue(keys.contains(PARENT_MSG.key));
+        assertEquals(MESSAGES_EN.keySet(), parentBundle.keySet());
+
+        // computed only once
+        assertSame(keys, bundle.keySet());
+        assertEquals(keys, new HashSet<>(Collections.list(bundle.getKeys())));
+    }
+
     @Test
     public void test_search_path() throws Exception {
         // overwrite stuff in apps
@@ -447,4 +529,69 @@ public class JcrResourceBundleTest {
         }
         assertEquals(MESSAGES_DE.size(), counter);
     }
+
+    @Test
+    public void test_load_profile() throws Exception {
+        Node appsI18n = getSession().getRootNode().addNode("apps").addNode("i18n", "nt:unstructured");
+        Node deJson = appsI18n.addNode("de.json", "nt:file");
+        deJson.addMixin("mix:language");
+        deJson.setProperty("jcr:language", "de");
+        Node content = deJson.addNode("jcr:content", "nt:resource");
+        content.setProperty("jcr:mimeType", "application/json");
+
+        // the json dictionary in /apps overrides all messages of /libs/i18n/de
+        StringBuilder json = new StringBuilder();
+        json.append("{");
+        for (Message msg : MESSAGES_DE_APPS.values()) {
+            json.append("\"").append(msg.key).append("\": \"");
+            json.append(msg.message).append("\",\n");
+        }
+        json.append("}");
+        byte[] data = json.toString().getBytes();
+        content.setProperty("jcr:data", getSession().getValueFactory().createBinary(new ByteArrayInputStream(data)));
+        getSession().save();
+
+        JcrResourceBundle bundle = new JcrResourceBundle(new Locale("de"), null, resolver, null, new PathFilter());
+        LoadProfile profile = bundle.getLoadProfile();
+        assertEquals(2, profile.getDictionaries().size());
+        assertTrue(profile.getTotalNanos() >= profile.getQueryNanos() + profile.getTraversalNanos());
+
+        for (LoadProfile.Dictionary dictionary : profile.getDictionaries()) {
+            if (dictionary.getPath().equals("/apps/i18n/de.json")) {
+                assertEquals(LoadProfile.STRATEGY_JSON, dictionary.getStrategy());
+                assertEquals(data.length, dictionary.getSize());
+                assertEquals(MESSAGES_DE_APPS.size(), dictionary.getEntries());
+                assertEquals(0, dictionary.getOverriddenKeys());
+            } else {
+                assertEquals("/libs/i18n/de", dictionary.getPath());
+                assertEquals(LoadProfile.STRATEGY_MESSAGE, dictionary.getStrategy());
+                assertTrue(dictionary.getSize() > MESSAGES_DE.size());
+                assertEquals(MESSAGES_DE.size(), dictionary.getEntries());
+                assertEquals(MESSAGES_DE.size(), dictionary.getOverriddenKeys());
+            }
+        }
+    }
+
+    @Test
+    public void test_load_profile_identical_messages() throws Exception {
+        // the same messages outside the search path are overridden by /libs/i18n/de
+        Node contentI18n = getSession().getRootNode().addNode("content").addNode("i18n", "nt:unstructured");
+        Node de = contentI18n.addNode("de", "nt:folder");
+        de.addMixin("mix:language");
+        de.setProperty("jcr:language", "de");
+        for (Message msg : MESSAGES_DE.values()) {
+            msg.add(de);
+        }
+        getSession().save();
+
+        JcrResourceBundle bundle = new JcrResourceBundle(new Locale("de"), null, resolver, null, new PathFilter());
+        for (LoadProfile.Dictionary dictionary : bundle.getLoadProfile().getDictionaries()) {
+            if (dictionary.getPath().equals("/content/i18n/de")) {
+                assertEquals(MESSAGES_DE.size(), dictionary.getOverriddenKeys());
+            } else {
+                assertEquals("/libs/i18n/de", dictionary.getPath());
+                assertEquals(0, dictionary.getOverriddenKeys());
+            }
+        }
+    }
 }
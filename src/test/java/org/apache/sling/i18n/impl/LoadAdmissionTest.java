@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadAdmissionTest {
+
+    @Test
+    public void testWaitingLoadsAreAdmittedByPriority() throws Exception {
+        final ResourceBundleStatistics statistics = new ResourceBundleStatistics();
+        final LoadAdmission admission = new LoadAdmission(1, statistics);
+        final List<String> admitted = new CopyOnWriteArrayList<>();
+
+        // the only permit is taken
+        admission.acquire(LoadAdmission.priority(false, false));
+
+        final List<Thread> threads = new ArrayList<>();
+        threads.add(load(admission, LoadAdmission.priority(false, true), "background", admitted));
+        threads.add(load(admission, LoadAdmission.priority(false, false), "request", admitted));
+        threads.add(load(admission, LoadAdmission.priority(false, true), "background 2", admitted));
+        threads.add(load(admission, LoadAdmission.priority(true, false), "default", admitted));
+        for (int i = 0; i < threads.size(); i++) {
+            threads.get(i).start();
+            awaitQueued(admission, i + 1);
+        }
+        Assert.assertTrue(admitted.isEmpty());
+
+        admission.release();
+        for (final Thread thread : threads) {
+            thread.join(5000);
+        }
+        Assert.assertEquals(Arrays.asList("default", "request", "background", "background 2"), admitted);
+        Assert.assertEquals(0, admission.getQueued());
+        Assert.assertEquals(4, statistics.getWaitingLoads());
+
+        // the permit is free again
+        admission.acquire(LoadAdmission.priority(false, true));
+        admission.release();
+        Assert.assertEquals(4, statistics.getWaitingLoads());
+    }
+
+    private static Thread load(
+            final LoadAdmission admission, final int priority, final String name, final List<String> admitted) {
+        return new Thread(() -> {
+            try {
+                admission.acquire(priority);
+            } catch (InterruptedException e) {
+                return;
+            }
+            admitted.add(name);
+            admission.release();
+        });
+    }
+
+    private static void awaitQueued(final LoadAdmission admission, final int queued) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+        while (admission.getQueued() < queued && System.currentTimeMillis() < end) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(queued, admission.getQueued());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class LocatorPathsIndexTest {
+
+    @Rule
+    public final SlingContext context = new SlingContext();
+
+    private final LocatorPaths locator = new LocatorPaths("/apps/app1", 2, 1);
+
+    private final LocatorPathsIndex index = new LocatorPathsIndex();
+
+    @Before
+    public void setup() {
+        context.build()
+                .resource("/apps/app1/i18n/de", "jcr:language", "de", "sling:basename", "app1")
+                .resource("/apps/app1/i18n/fr", "jcr:language", "fr")
+                .resource("/apps/app1/i18n/too/deep", "jcr:language", "it")
+                .commit();
+    }
+
+    @Test
+    public void testLanguageRoots() {
+        List<LocatorPathsIndex.LanguageRoot> roots = index.getLanguageRoots(context.resourceResolver(), locator);
+        Assert.assertEquals(2, roots.size());
+        Assert.assertEquals("/apps/app1/i18n/de", roots.get(0).getPath());
+        Assert.assertEquals("de", roots.get(0).getLanguage());
+        Assert.assertArrayEquals(new String[] {"app1"}, roots.get(0).getBaseNames());
+        Assert.assertEquals("fr", roots.get(1).getLanguage());
+        Assert.assertEquals(0, roots.get(1).getBaseNames().length);
+
+        Assert.assertTrue(index.getLanguageRoots(context.resourceResolver(), new LocatorPaths("/apps/missing", 2, 1))
+                .isEmpty());
+    }
+
+    @Test
+    public void testUpdate() {
+        List<LocatorPathsIndex.LanguageRoot> roots = index.getLanguageRoots(context.resourceResolver(), locator);
+        Assert.assertTrue(index.covers("/apps/app1/i18n/es"));
+        Assert.assertTrue(index.covers("/apps"));
+        Assert.assertFalse(index.covers("/libs/i18n"));
+
+        // the recorded result is used as long as no language root is affected
+        context.build().resource("/apps/app1/i18n/es", "jcr:language", "es").commit();
+        Assert.assertSame(roots, index.getLanguageRoots(context.resourceResolver(), locator));
+        Assert.assertTrue(index.update(new ResourceChange(ChangeType.ADDED, "/apps/app1/i18n/de/key", false)));
+        Assert.assertFalse(index.update(new ResourceChange(ChangeType.ADDED, "/apps/app1/other", false)));
+        index.update(context.resourceResolver(), new ResourceChange(ChangeType.ADDED, "/apps/app1/other", false));
+        Assert.assertSame(roots, index.getLanguageRoots(context.resourceResolver(), locator));
+
+        // a new language root, only detected by reading the resource
+        ResourceChange added = new ResourceChange(ChangeType.ADDED, "/apps/app1/i18n/es", false);
+        Assert.assertFalse(index.update(added));
+        index.update(context.resourceResolver(), added);
+        Assert.assertTrue(languages(index.getLanguageRoots(context.resourceResolver(), locator))
+                .contains("es"));
+
+        // a removed subtree containing language roots
+        roots = index.getLanguageRoots(context.resourceResolver(), locator);
+        Assert.assertTrue(index.update(new ResourceChange(ChangeType.REMOVED, "/apps/app1/i18n", false)));
+        Assert.assertNotSame(roots, index.getLanguageRoots(context.resourceResolver(), locator));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testUpdateWithPropertyNames() {
+        List<LocatorPathsIndex.LanguageRoot> roots = index.getLanguageRoots(context.resourceResolver(), locator);
+
+        Assert.assertTrue(index.update(new ResourceChange(
+                ChangeType.ADDED, "/apps/app1/i18n/es", false, Collections.singleton("title"), null, null)));
+        Assert.assertSame(roots, index.getLanguageRoots(context.resourceResolver(), locator));
+
+        Assert.assertTrue(index.update(new ResourceChange(
+                ChangeType.ADDED, "/apps/app1/i18n/es", false, Collections.singleton("jcr:language"), null, null)));
+        Assert.assertNotSame(roots, index.getLanguageRoots(context.resourceResolver(), locator));
+    }
+
+    @Test
+    public void testDropDuringTraversal() {
+        // the language roots are dropped while the locator path is traversed
+        ResourceResolver resolver = Mockito.spy(context.resourceResolver());
+        Mockito.doAnswer(invocation -> {
+                    index.removeAll(Collections.singleton(locator));
+                    return invocation.callRealMethod();
+                })
+                .when(resolver)
+                .getResource("/apps/app1");
+
+        List<LocatorPathsIndex.LanguageRoot> roots = index.getLanguageRoots(resolver, locator);
+        Assert.assertEquals(2, roots.size());
+        Assert.assertFalse(index.covers("/apps/app1"));
+        Assert.assertNotSame(roots, index.getLanguageRoots(context.resourceResolver(), locator));
+        Assert.assertTrue(index.covers("/apps/app1"));
+    }
+
+    private static List<String> languages(List<LocatorPathsIndex.LanguageRoot> roots) {
+        List<String> languages = new ArrayList<>();
+        for (LocatorPathsIndex.LanguageRoot root : roots) {
+            languages.add(root.getLanguage());
+        }
+        return languages;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MissingKeyRecorderTest {
+
+    @Test
+    public void testHeavyHittersPerLocale() {
+        MissingKeyRecorder recorder = new MissingKeyRecorder(1);
+        for (int i = 0; i < 1000; i++) {
+            recorder.record(Locale.GERMAN, "noise" + i);
+            if (i % 2 == 0) {
+                recorder.record(Locale.GERMAN, "frequent");
+            }
+            if (i % 4 == 0) {
+                recorder.record(Locale.GERMAN, "less.frequent");
+            }
+        }
+        recorder.record(Locale.FRENCH, "french");
+
+        Map<Locale, List<Map.Entry<String, Long>>> top = recorder.getTopMissingKeys();
+        Assert.assertEquals(2, top.size());
+
+        List<Map.Entry<String, Long>> german = top.get(Locale.GERMAN);
+        Assert.assertEquals(MissingKeyRecorder.TOP_K, german.size());
+        Assert.assertEquals("frequent", german.get(0).getKey());
+        Assert.assertTrue(german.get(0).getValue() >= 500);
+        Assert.assertEquals("less.frequent", german.get(1).getKey());
+        Assert.assertTrue(german.get(1).getValue() >= 250);
+
+        Assert.assertEquals("french", top.get(Locale.FRENCH).get(0).getKey());
+        Assert.assertEquals(1751, recorder.getSampledMisses());
+    }
+
+    @Test
+    public void testConcurrentMissesAreReportedOnce() throws Exception {
+        MissingKeyRecorder recorder = new MissingKeyRecorder(1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200; i++) {
+                    recorder.record(Locale.GERMAN, "key" + (i % 10));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        List<Map.Entry<String, Long>> german = recorder.getTopMissingKeys().get(Locale.GERMAN);
+        Set<String> keys = new HashSet<>();
+        for (Map.Entry<String, Long> entry : german) {
+            Assert.assertTrue("Reported twice: " + entry.getKey(), keys.add(entry.getKey()));
+        }
+        Assert.assertEquals(10, keys.size());
+    }
+
+    @Test
+    public void testLocalesAreLimited() {
+        MissingKeyRecorder recorder = new MissingKeyRecorder(1);
+        for (int i = 0; i <= MissingKeyRecorder.MAX_LOCALES; i++) {
+            recorder.record(new Locale("x" + i), "key");
+        }
+        Assert.assertEquals(
+                MissingKeyRecorder.MAX_LOCALES, recorder.getTopMissingKeys().size());
+        Assert.assertEquals(1, recorder.getDroppedMisses());
+
+        recorder.clear();
+        Assert.assertTrue(recorder.getTopMissingKeys().isEmpty());
+        Assert.assertEquals(0, recorder.getSampledMisses());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PreloadFilterTest {
+
+    @Test
+    public void testIncludesAllByDefault() {
+        final PreloadFilter filter = new PreloadFilter(new String[0], new String[0], new String[0], new String[0]);
+
+        assertTrue(filter.includes(null, Locale.GERMAN));
+        assertTrue(filter.includes("app", new Locale("de", "AT", "vienna")));
+    }
+
+    @Test
+    public void testLocalePatterns() {
+        final PreloadFilter filter =
+                new PreloadFilter(new String[] {"de*", "en-US", "f?"}, new String[] {"de_CH"}, null, null);
+
+        assertTrue(filter.includes(null, Locale.GERMAN));
+        assertTrue(filter.includes(null, new Locale("de", "AT")));
+        assertTrue(filter.includes(null, Locale.US));
+        assertTrue(filter.includes(null, Locale.FRENCH));
+        assertFalse(filter.includes(null, new Locale("de", "CH")));
+        assertFalse(filter.includes(null, Locale.ENGLISH));
+        assertFalse(filter.includes(null, Locale.CANADA_FRENCH));
+    }
+
+    @Test
+    public void testBaseNamePatterns() {
+        final PreloadFilter filter =
+                new PreloadFilter(null, null, new String[] {"", "app.*"}, new String[] {"app.internal"});
+
+        // empty patterns are ignored, so the bundle without base name is not included
+        assertFalse(filter.includes(null, Locale.GERMAN));
+        assertTrue(filter.includes("app.site", Locale.GERMAN));
+        assertFalse(filter.includes("app.internal", Locale.GERMAN));
+        assertFalse(filter.includes("other", Locale.GERMAN));
+    }
+}
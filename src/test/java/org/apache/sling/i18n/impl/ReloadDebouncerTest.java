@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReloadDebouncerTest {
+
+    private final Key german = new Key(null, Locale.GERMAN);
+
+    private final Key french = new Key(null, Locale.FRENCH);
+
+    @Test
+    public void testQuietPeriodAndMaximumDelay() {
+        ReloadDebouncer debouncer = new ReloadDebouncer(1000, 2500, false);
+        Assert.assertNull(debouncer.take());
+        Assert.assertEquals(1000, debouncer.add(0, false, Collections.singleton(german)));
+        Assert.assertEquals(1800, debouncer.add(800, false, Collections.singleton(french)));
+        // continuous changes are reloaded after the maximum delay at the latest
+        Assert.assertEquals(2500, debouncer.add(1600, false, Collections.singleton(german)));
+
+        ReloadDebouncer.Batch batch = debouncer.take();
+        Assert.assertFalse(batch.isReloadAll());
+        Assert.assertEquals(
+                Arrays.asList(german, french), Arrays.asList(batch.getKeys().toArray()));
+        Assert.assertEquals(0, batch.getFirstEvent());
+        Assert.assertEquals(-1, debouncer.getDueTime());
+
+        // a reload of all bundles replaces the reloads of single bundles
+        debouncer.add(3000, false, Collections.singleton(german));
+        debouncer.add(3100, true, Collections.emptySet());
+        debouncer.add(3200, false, Collections.singleton(french));
+        batch = debouncer.take();
+        Assert.assertTrue(batch.isReloadAll());
+        Assert.assertTrue(batch.getKeys().isEmpty());
+        Assert.assertEquals(3000, batch.getFirstEvent());
+    }
+
+    @Test
+    public void testAdaptiveQuietPeriod() {
+        ReloadDebouncer debouncer = new ReloadDebouncer(100, 10000, true);
+        Assert.assertEquals(100, debouncer.getQuietPeriod());
+        for (long time = 0; time <= 2000; time += 500) {
+            debouncer.add(time, false, Collections.singleton(german));
+        }
+        // a change every 500 ms extends the quiet period to twice the interval
+        Assert.assertEquals(1000, debouncer.getQuietPeriod());
+        Assert.assertEquals(3000, debouncer.getDueTime());
+
+        // the average is reset after a pause longer than the maximum delay
+        debouncer.take();
+        debouncer.add(20000, false, Collections.singleton(german));
+        Assert.assertEquals(100, debouncer.getQuietPeriod());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.i18n.impl.JcrResourceBundleProvider.Key;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReloadExecutorTest {
+
+    @Test
+    public void testPendingReloadsAreMerged() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Set<Key>> batches = new CopyOnWriteArrayList<>();
+        final AtomicInteger reloadAlls = new AtomicInteger();
+        final ResourceBundleStatistics statistics = new ResourceBundleStatistics();
+        final ExecutorService threads = Executors.newSingleThreadExecutor();
+        final ReloadExecutor executor = new ReloadExecutor(
+                threads,
+                2,
+                reloadAlls::incrementAndGet,
+                keys -> {
+                    batches.add(keys);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                },
+                statistics);
+        try {
+            // the first reload blocks the only thread
+            executor.reload(Collections.singleton(key(Locale.GERMAN)));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            executor.reload(Collections.singleton(key(Locale.FRENCH)));
+            executor.reload(Arrays.asList(key(Locale.FRENCH), key(Locale.ITALIAN)));
+            Assert.assertEquals(2, executor.getQueueDepth());
+            Assert.assertEquals(1, statistics.getReloadsMerged());
+
+            // exceeding the queue size turns the pending reloads into a reload of all bundles
+            executor.reload(Collections.singleton(key(Locale.CHINESE)));
+            Assert.assertEquals(1, executor.getQueueDepth());
+            Assert.assertEquals(1, statistics.getReloadsRejected());
+            executor.reload(Collections.singleton(key(Locale.JAPANESE)));
+            executor.reloadAll();
+            Assert.assertEquals(3, statistics.getReloadsMerged());
+
+            release.countDown();
+            Assert.assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, reloadAlls.get());
+            Assert.assertEquals(Collections.singletonList(Collections.singleton(key(Locale.GERMAN))), batches);
+        } finally {
+            executor.close();
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOverlappingReloadsDoNotRunConcurrently() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final ExecutorService threads = Executors.newFixedThreadPool(2);
+        final ReloadExecutor executor = new ReloadExecutor(
+                threads,
+                10,
+                () -> {},
+                keys -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                },
+                new ResourceBundleStatistics());
+        try {
+            executor.reload(Collections.singleton(key(Locale.GERMAN)));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // the second batch waits for the first one although a thread is idle
+            executor.reload(Collections.singleton(key(Locale.FRENCH)));
+            Assert.assertEquals(1, executor.getQueueDepth());
+
+            release.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, maxRunning.get());
+        } finally {
+            executor.close();
+            threads.shutdownNow();
+        }
+    }
+
+    private static Key key(Locale locale) {
+        return new Key(null, locale);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import javax.management.openmbean.CompositeData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceBundleProviderMBeanImplTest extends AbstractJcrResourceBundleProviderTest {
+
+    @Test
+    public void testStatisticsMBean() throws Exception {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.emptyMap());
+        ResourceBundleProviderMBean mbean = context.getService(ResourceBundleProviderMBean.class);
+        Assert.assertNotNull(mbean);
+        // the reload of all bundles on activation is scheduled with the mocked scheduler only
+        Assert.assertEquals(1, mbean.getPendingReloadJobs());
+
+        // de and its parent en are loaded, the second lookup of de is a cache hit
+        // and the internal lookup of the parent is not counted
+        provider.getResourceBundle(Locale.GERMAN);
+        provider.getResourceBundle(Locale.GERMAN);
+        Assert.assertEquals(2, mbean.getLoads());
+        Assert.assertEquals(1, mbean.getCacheMisses());
+        Assert.assertEquals(1, mbean.getCacheHits());
+        provider.getResourceBundle(Locale.ENGLISH);
+        Assert.assertEquals(1, mbean.getCacheMisses());
+        Assert.assertEquals(2, mbean.getCacheHits());
+        Assert.assertEquals(1, mbean.getLanguageRootPathsCount());
+        Assert.assertEquals(2, mbean.getCacheSizes().size());
+        Assert.assertEquals(
+                1, mbean.getCacheSizes().get(new Object[] {"de", ""}).get("messages"));
+        long histogramLoads = 0;
+        for (Object bucket : mbean.getLoadTimeHistogram().values()) {
+            histogramLoads += (Long) ((CompositeData) bucket).get("loads");
+        }
+        Assert.assertEquals(2, histogramLoads);
+
+        provider.onChange(Arrays.asList(
+                new ResourceChange(ChangeType.CHANGED, "/var/eventing/jobs/1", false),
+                new ResourceChange(ChangeType.ADDED, "/apps/sample", false)));
+        Assert.assertEquals(1, mbean.getEventsFiltered());
+        Assert.assertEquals(1, mbean.getEventsProcessed());
+
+        ResourceBundle german = provider.getResourceBundle(Locale.GERMAN);
+        mbean.reloadBundle("", "de");
+        Assert.assertEquals(1, mbean.getBundleReloadCount());
+        Assert.assertNotSame(german, provider.getResourceBundle(Locale.GERMAN));
+
+        german = provider.getResourceBundle(Locale.GERMAN);
+        mbean.reloadAll();
+        Assert.assertEquals(1, mbean.getReloadAllCount());
+        Assert.assertEquals(2, mbean.getCacheSizes().size());
+        Assert.assertNotSame(german, provider.getResourceBundle(Locale.GERMAN));
+    }
+
+    @Test
+    public void testMBeanReloadsAreQueued() throws Exception {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("reload.threads", 1));
+        ResourceBundleProviderMBean mbean = context.getService(ResourceBundleProviderMBean.class);
+        ResourceBundle german = provider.getResourceBundle(Locale.GERMAN);
+
+        // the reloads are queued on the reload executor instead of running on the calling thread
+        slowQueries = new CountDownLatch(1);
+        mbean.reloadAll();
+        mbean.reloadBundle("", "de");
+        Assert.assertEquals(1, mbean.getReloadQueueDepth());
+
+        slowQueries.countDown();
+        Assert.assertTrue(provider.awaitReloads(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, mbean.getReloadAllCount());
+        Assert.assertNotSame(german, provider.getResourceBundle(Locale.GERMAN));
+    }
+
+    @Test
+    public void testMissingKeysAreRecorded() {
+        createDictionary("/libs/i18n/de", "de", "kitchen", "Küche");
+
+        JcrResourceBundleProvider provider = activateProvider(Collections.singletonMap("missing.keys.sample.rate", 1));
+        ResourceBundle austrian = provider.getResourceBundle(new Locale("de", "AT"));
+
+        Assert.assertEquals("Küche", austrian.getString("kitchen"));
+        Assert.assertEquals("fork", austrian.getString("fork"));
+        Assert.assertEquals("fork", austrian.getString("fork"));
+        Assert.assertEquals("spoon", provider.getResourceBundle(Locale.GERMAN).getString("spoon"));
+
+        ResourceBundleProviderMBean mbean = context.getService(ResourceBundleProviderMBean.class);
+        Assert.assertEquals(3, mbean.getSampledMissingKeys());
+        Assert.assertEquals(
+                2L, mbean.getMissingKeys().get(new Object[] {"de_AT", "fork"}).get("misses"));
+        Assert.assertEquals(
+                1L, mbean.getMissingKeys().get(new Object[] {"de", "spoon"}).get("misses"));
+        Assert.assertNull(mbean.getMissingKeys().get(new Object[] {"de_AT", "kitchen"}));
+
+        mbean.resetMissingKeys();
+        Assert.assertTrue(mbean.getMissingKeys().isEmpty());
+    }
+}
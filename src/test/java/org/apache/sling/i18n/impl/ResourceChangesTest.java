@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.i18n.impl;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings("deprecation")
+public class ResourceChangesTest {
+
+    private static final Set<String> NONE = Collections.emptySet();
+
+    @Test
+    public void testUnknownPropertyNames() {
+        Assert.assertNull(
+                ResourceChanges.touches(new ResourceChange(ChangeType.ADDED, "/apps/a", false), "sling:message"));
+        Assert.assertNull(ResourceChanges.touches(
+                new ResourceChange(ChangeType.CHANGED, "/apps/a", false, NONE, null, NONE), "sling:message"));
+    }
+
+    @Test
+    public void testAdded() {
+        Assert.assertEquals(
+                Boolean.TRUE,
+                ResourceChanges.touches(
+                        new ResourceChange(
+                                ChangeType.ADDED, "/apps/a", false, Collections.singleton("sling:key"), null, null),
+                        "sling:message",
+                        "sling:key"));
+        Assert.assertEquals(
+                Boolean.FALSE,
+                ResourceChanges.touches(
+                        new ResourceChange(
+                                ChangeType.ADDED, "/apps/a", false, Collections.singleton("jcr:title"), null, null),
+                        "sling:message"));
+    }
+
+    @Test
+    public void testChanged() {
+        Assert.assertEquals(
+                Boolean.TRUE,
+                ResourceChanges.touches(
+                        new ResourceChange(
+                                ChangeType.CHANGED,
+                                "/apps/a",
+                                false,
+                                NONE,
+                                NONE,
+                                Collections.singleton("jcr:language")),
+                        "jcr:language"));
+        Assert.assertEquals(
+                Boolean.FALSE,
+                ResourceChanges.touches(
+                        new ResourceChange(
+                                ChangeType.CHANGED,
+                                "/apps/a",
+                                false,
+                                NONE,
+                                Collections.singleton("jcr:lastModified"),
+                                NONE),
+                        "jcr:language"));
+    }
+}